@@ -0,0 +1,261 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares one query sequence against a large batch of candidates. The query's match masks are built once, in a
+ * {@link BitParallelLcs}, and each worker thread reuses its own scratch column and symbol counts, so comparing a
+ * candidate allocates nothing.
+ *
+ * Candidates are split across cores with ForkJoin. For top K queries the K-th best length found so far by any worker
+ * is shared as a threshold, and a candidate is skipped as soon as an upper bound on its LCS falls below it: first the
+ * bound from the symbol counts, then, while its LCS is being computed, the LCS so far plus the characters left.
+ */
+public class BatchLcs {
+    // candidates per task
+    private static final int BATCH_THRESHOLD = 256;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final BitParallelLcs _query;
+    private final ThreadLocal<Scratch> _scratch;
+
+    /**
+     * A candidate of a top K query and its LCS length with the query.
+     */
+    public static class Match {
+        public final int index;
+        public final int length;
+
+        Match(int index, int length) {
+            this.index = index;
+            this.length = length;
+        }
+
+        @Override
+        public String toString() {
+            return "Match{index=" + index + ", length=" + length + "}";
+        }
+    }
+
+    private static class Scratch {
+        final long[] column;
+        final int[] counts;
+
+        Scratch(BitParallelLcs query) {
+            column = new long[query.words()];
+            counts = new int[query.symbols()];
+        }
+    }
+
+    public BatchLcs(char[] query) {
+        _query = new BitParallelLcs(query);
+        _scratch = ThreadLocal.withInitial(() -> new Scratch(_query));
+    }
+
+    /**
+     * @param candidates the sequences to compare the query against
+     * @return the LCS length of the query and each candidate
+     */
+    public int[] lengths(char[][] candidates) {
+        int[] lengths = new int[candidates.length];
+        POOL.invoke(new LengthsTask(candidates, lengths, 0, candidates.length));
+        return lengths;
+    }
+
+    /**
+     * @param candidates the sequences to compare the query against
+     * @param k the number of matches to return
+     * @param minLength the shortest LCS length worth returning
+     * @return up to k candidates with the longest LCS with the query, of at least minLength, longest first and then by
+     *     index
+     */
+    public List<Match> topK(char[][] candidates, int k, int minLength) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        AtomicInteger threshold = new AtomicInteger(Math.max(0, minLength));
+        long[] best = POOL.invoke(new TopKTask(candidates, k, threshold, 0, candidates.length));
+
+        List<Match> matches = new ArrayList<>(best.length);
+        for (long packed : best) {
+            matches.add(new Match(indexOf(packed), lengthOf(packed)));
+        }
+        return matches;
+    }
+
+    private class LengthsTask extends RecursiveAction {
+        private final char[][] _candidates;
+        private final int[] _lengths;
+        private final int _from;
+        private final int _to;
+
+        LengthsTask(char[][] candidates, int[] lengths, int from, int to) {
+            _candidates = candidates;
+            _lengths = lengths;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from <= BATCH_THRESHOLD) {
+                long[] column = _scratch.get().column;
+                for (int i = _from; i < _to; i++) {
+                    _lengths[i] = _query.length(_candidates[i], column, 0);
+                }
+            } else {
+                int mid = _from + (_to - _from) / 2;
+                invokeAll(new LengthsTask(_candidates, _lengths, _from, mid),
+                        new LengthsTask(_candidates, _lengths, mid, _to));
+            }
+        }
+    }
+
+    /**
+     * Finds the top K of a range of candidates, as packed (length, index) longs sorted best first.
+     */
+    private class TopKTask extends RecursiveTask<long[]> {
+        private final char[][] _candidates;
+        private final int _k;
+        private final AtomicInteger _threshold;
+        private final int _from;
+        private final int _to;
+
+        TopKTask(char[][] candidates, int k, AtomicInteger threshold, int from, int to) {
+            _candidates = candidates;
+            _k = k;
+            _threshold = threshold;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (_to - _from > BATCH_THRESHOLD) {
+                int mid = _from + (_to - _from) / 2;
+                TopKTask left = new TopKTask(_candidates, _k, _threshold, _from, mid);
+                TopKTask right = new TopKTask(_candidates, _k, _threshold, mid, _to);
+                invokeAll(left, right);
+                return merge(left.join(), right.join(), _k);
+            }
+
+            Scratch scratch = _scratch.get();
+            // a min heap of the best K so far, the root is the K-th best
+            long[] heap = new long[_k];
+            int size = 0;
+            for (int i = _from; i < _to; i++) {
+                char[] candidate = _candidates[i];
+                // a candidate which can only tie the threshold may still beat the K-th best by index
+                int threshold = _threshold.get();
+                if (_query.upperBound(candidate, scratch.counts) < threshold) {
+                    continue;
+                }
+                int length = _query.length(candidate, scratch.column, threshold);
+                if (length < 0) {
+                    continue;
+                }
+
+                long packed = pack(length, i);
+                if (size < _k) {
+                    heap[size++] = packed;
+                    siftUp(heap, size - 1);
+                } else if (packed > heap[0]) {
+                    heap[0] = packed;
+                    siftDown(heap, size);
+                } else {
+                    continue;
+                }
+                if (size == _k) {
+                    raise(_threshold, lengthOf(heap[0]));
+                }
+            }
+
+            long[] best = Arrays.copyOf(heap, size);
+            Arrays.sort(best);
+            reverse(best);
+            return best;
+        }
+    }
+
+    private static void raise(AtomicInteger threshold, int value) {
+        int current = threshold.get();
+        while (value > current && !threshold.compareAndSet(current, value)) {
+            current = threshold.get();
+        }
+    }
+
+    /**
+     * Longer is better, then lower index, so packed values compare the same way as the matches they stand for.
+     */
+    private static long pack(int length, int index) {
+        return ((long) length << 32) | (Integer.MAX_VALUE - index);
+    }
+
+    private static int lengthOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int indexOf(long packed) {
+        return Integer.MAX_VALUE - (int) packed;
+    }
+
+    private static long[] merge(long[] left, long[] right, int k) {
+        long[] merged = new long[Math.min(k, left.length + right.length)];
+        int i = 0;
+        int j = 0;
+        for (int m = 0; m < merged.length; m++) {
+            merged[m] = j >= right.length || (i < left.length && left[i] > right[j]) ? left[i++] : right[j++];
+        }
+        return merged;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent] <= heap[i]) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        for (;;) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(heap, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(long[] values, int i, int j) {
+        long t = values[i];
+        values[i] = values[j];
+        values[j] = t;
+    }
+
+    private static void reverse(long[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            swap(values, i, j);
+        }
+    }
+}
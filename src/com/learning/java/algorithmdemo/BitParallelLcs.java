@@ -0,0 +1,219 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+
+/**
+ * The length of the LCS of a pattern against any number of texts, computed 64 cells of the LCS table at a time with
+ * the bit-vector recurrence of Allison-Dix, in the form given by Hyyro.
+ *
+ * For each symbol of the pattern a match mask is built once, with bit i set where pattern[i] is that symbol. A column
+ * of the LCS table is then kept as the bit vector V, where a 0 bit marks a row at which the LCS length steps up, and
+ * each character c of the text advances the column with
+ *
+ * U = V & match(c)
+ * V = (V + U) | (V - U)
+ *
+ * The carry of the addition and the borrow of the subtraction are carried from one long word into the next, so a
+ * pattern of m characters costs ceil(m / 64) words per text character instead of m cell updates. The LCS length is
+ * the number of 0 bits in the first m bits of the final V.
+ */
+public class BitParallelLcs {
+    private final int _length;
+    private final int _words;
+    // the match mask row of each symbol up to the largest in the pattern, -1 for symbols not in the pattern
+    private final int[] _symbolRows;
+    private final long[][] _matchMasks;
+    // the number of times each symbol occurs in the pattern, by match mask row
+    private final int[] _symbolCounts;
+
+    /**
+     * Builds the match masks of the pattern, which are reused by every text it is compared against.
+     */
+    public BitParallelLcs(char[] pattern) {
+        _length = pattern.length;
+        _words = (pattern.length + Long.SIZE - 1) / Long.SIZE;
+
+        char largest = 0;
+        for (char c : pattern) {
+            largest = (char) Math.max(largest, c);
+        }
+        _symbolRows = new int[largest + 1];
+        Arrays.fill(_symbolRows, -1);
+        int symbols = 0;
+        for (char c : pattern) {
+            if (_symbolRows[c] < 0) {
+                _symbolRows[c] = symbols++;
+            }
+        }
+
+        _matchMasks = new long[symbols][_words];
+        _symbolCounts = new int[symbols];
+        for (int i = 0; i < pattern.length; i++) {
+            _matchMasks[_symbolRows[pattern[i]]][i >>> 6] |= 1L << i;
+            _symbolCounts[_symbolRows[pattern[i]]]++;
+        }
+    }
+
+    /**
+     * @param seq1 the first sequence
+     * @param seq2 the second sequence
+     * @return the length of the longest common subsequence of both
+     */
+    public static int length(char[] seq1, char[] seq2) {
+        // the shorter sequence as the pattern needs the fewest words per column
+        return seq1.length <= seq2.length ? new BitParallelLcs(seq1).length(seq2)
+                : new BitParallelLcs(seq2).length(seq1);
+    }
+
+    /**
+     * @param text the sequence to compare the pattern against
+     * @return the length of the longest common subsequence of the pattern and the text
+     */
+    public int length(char[] text) {
+        return length(text, new long[_words], 0);
+    }
+
+    /**
+     * The LCS length using a caller supplied scratch column, giving up as soon as the length can no longer reach the
+     * threshold: after each block of 64 text characters the LCS so far plus the characters left is an upper bound.
+     *
+     * @param text the sequence to compare the pattern against
+     * @param v scratch of at least {@link #words()} longs, overwritten
+     * @param threshold the shortest length of interest, 0 to always run to the end
+     * @return the length of the longest common subsequence, or -1 if it is shorter than threshold
+     */
+    int length(char[] text, long[] v, int threshold) {
+        if (Math.min(_length, text.length) < threshold) {
+            return -1;
+        }
+        if (_length == 0) {
+            return 0;
+        }
+        if (_words == 1) {
+            return lengthSingleWord(text, threshold);
+        }
+
+        Arrays.fill(v, 0, _words, -1L);
+        for (int i = 0; i < text.length; i++) {
+            int row = symbolRow(text[i]);
+            if (row >= 0) {
+                advance(v, _matchMasks[row]);
+            }
+            if ((i & 63) == 63 && countZeros(v) + text.length - 1 - i < threshold) {
+                return -1;
+            }
+        }
+        int length = countZeros(v);
+        return length < threshold ? -1 : length;
+    }
+
+    /**
+     * An upper bound on the LCS length of the pattern and the text, the sum over the symbols of the smaller of their
+     * counts in each. O(text length), much cheaper than the LCS itself.
+     *
+     * @param counts scratch of at least {@link #symbols()} ints, all 0, left all 0
+     */
+    int upperBound(char[] text, int[] counts) {
+        for (char c : text) {
+            int row = symbolRow(c);
+            if (row >= 0) {
+                counts[row]++;
+            }
+        }
+        int bound = 0;
+        for (int row = 0; row < _symbolCounts.length; row++) {
+            bound += Math.min(counts[row], _symbolCounts[row]);
+            counts[row] = 0;
+        }
+        return bound;
+    }
+
+    /**
+     * @return the length of the pattern
+     */
+    public int patternLength() {
+        return _length;
+    }
+
+    /**
+     * @return the number of longs in a column, the scratch size of {@link #length(char[], long[], int)}
+     */
+    int words() {
+        return _words;
+    }
+
+    /**
+     * @return the number of distinct symbols in the pattern, the scratch size of {@link #upperBound(char[], int[])}
+     */
+    int symbols() {
+        return _symbolCounts.length;
+    }
+
+    /**
+     * Advances the column V over one text character with match mask m, adding and subtracting across the words.
+     */
+    private void advance(long[] v, long[] m) {
+        advance(v, m, _words);
+    }
+
+    /**
+     * Advances the first words longs of the column V over one text character with match mask m. The bits of V past
+     * the end of the pattern only ever carry upward, so they never change the bits below them.
+     */
+    static void advance(long[] v, long[] m, int words) {
+        long carry = 0;
+        long borrow = 0;
+        for (int k = 0; k < words; k++) {
+            long a = v[k];
+            long u = a & m[k];
+
+            long sum = a + u + carry;
+            // the carry out of a full adder, from the top bits of the operands and the result
+            carry = ((a & u) | ((a | u) & ~sum)) >>> 63;
+
+            long difference = a - u - borrow;
+            // the borrow out of a full subtractor
+            borrow = ((~a & u) | ((~a | u) & difference)) >>> 63;
+
+            v[k] = sum | difference;
+        }
+    }
+
+    private int lengthSingleWord(char[] text, int threshold) {
+        long[][] masks = _matchMasks;
+        long low = lowBits(_length);
+        long v = -1L;
+        for (int i = 0; i < text.length; i++) {
+            int row = symbolRow(text[i]);
+            if (row >= 0) {
+                long u = v & masks[row][0];
+                v = (v + u) | (v - u);
+            }
+            if ((i & 63) == 63 && _length - Long.bitCount(v & low) + text.length - 1 - i < threshold) {
+                return -1;
+            }
+        }
+        int length = _length - Long.bitCount(v & low);
+        return length < threshold ? -1 : length;
+    }
+
+    private int countZeros(long[] v) {
+        int ones = 0;
+        for (int k = 0; k < _words - 1; k++) {
+            ones += Long.bitCount(v[k]);
+        }
+        ones += Long.bitCount(v[_words - 1] & lowBits(_length - (_words - 1) * Long.SIZE));
+        return _length - ones;
+    }
+
+    private int symbolRow(char c) {
+        return c < _symbolRows.length ? _symbolRows[c] : -1;
+    }
+
+    /**
+     * @return a mask of the lowest bits bits, 1 <= bits <= 64
+     */
+    private static long lowBits(int bits) {
+        return bits == Long.SIZE ? -1L : (1L << bits) - 1;
+    }
+}
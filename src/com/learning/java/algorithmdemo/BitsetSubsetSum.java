@@ -0,0 +1,200 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Subset sum over a bitset of reachable sums, the word parallel form of the table in
+ * {@link FindEqualPartitions#equalSumDynamic(int[], int)}.
+ *
+ * Bit s of the bitset is set when some subset of the elements so far sums to s. Adding an element v makes every
+ * reachable s also reach s + v, which for the whole bitset is one shift and or, reachable |= reachable << v, 64 sums
+ * per long. That is O(n * S / 64) time and O(S / 64) memory rather than a boolean per (sum, element) cell. Bitsets of
+ * many words are shifted into a second bitset by parallel tasks over word ranges, since in place each word would
+ * depend on words another task may already have written.
+ *
+ * To rebuild a subset, the index of the element which first reached each sum is recorded. The sum minus that element
+ * was reached by an earlier element, so following the records back from the target visits each element at most once.
+ * The records cost O(S) ints, so {@link #subsetSum(int[], int)} first checks the target is reachable in O(S / 64)
+ * memory, and only then runs again recording them.
+ */
+public class BitsetSubsetSum {
+  // bitsets with at least this many words are shifted in parallel
+  static final int PARALLEL_THRESHOLD_WORDS = 1 << 16;
+  // words per parallel shift task
+  private static final int TASK_WORDS = 1 << 13;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * @param values the elements, none negative
+   * @param maxSum the largest sum of interest
+   * @return a bitset with bit s set when some subset of values sums to s, for s up to maxSum
+   */
+  public static long[] reachableSums(int[] values, int maxSum) {
+    return run(values, maxSum, null);
+  }
+
+  /**
+   * @param values the elements, none negative
+   * @param target the sum to find
+   * @return the indexes of some elements of values which sum to target, or null if none do
+   */
+  public static int[] subsetSum(int[] values, int target) {
+    if (target < 0) {
+      return null;
+    }
+    if ((run(values, target, null)[target >>> 6] & (1L << target)) == 0) {
+      return null;
+    }
+    int[] firstReached = new int[target + 1];
+    run(values, target, firstReached);
+
+    int[] indexes = new int[values.length];
+    int count = 0;
+    for (int sum = target; sum > 0; ) {
+      int index = firstReached[sum];
+      indexes[count++] = index;
+      sum -= values[index];
+    }
+    return Arrays.copyOf(indexes, count);
+  }
+
+  /**
+   * @param values the elements, none negative
+   * @return the indexes of the elements of each of two parts with equal sums, or null if there are none
+   */
+  public static int[][] partition(int[] values) {
+    long sum = 0;
+    for (int value : values) {
+      sum += value;
+    }
+    if (sum % 2 != 0) {
+      return null;
+    }
+    if (sum / 2 > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Sum too large for a bitset: " + sum);
+    }
+
+    int[] first = subsetSum(values, (int) (sum / 2));
+    if (first == null) {
+      return null;
+    }
+    boolean[] inFirst = new boolean[values.length];
+    for (int index : first) {
+      inFirst[index] = true;
+    }
+    int[] second = new int[values.length - first.length];
+    for (int i = 0, k = 0; i < values.length; i++) {
+      if (!inFirst[i]) {
+        second[k++] = i;
+      }
+    }
+    Arrays.sort(first);
+    return new int[][]{first, second};
+  }
+
+  private static long[] run(int[] values, int maxSum, int[] firstReached) {
+    if (maxSum < 0) {
+      throw new IllegalArgumentException("Sum must not be negative: " + maxSum);
+    }
+    int words = (maxSum >>> 6) + 1;
+    // bits past maxSum in the last word are never read, but must not be recorded
+    long lastWordMask = (maxSum & 63) == 63 ? -1L : (1L << ((maxSum & 63) + 1)) - 1;
+    long[] reachable = new long[words];
+    long[] next = words >= PARALLEL_THRESHOLD_WORDS ? new long[words] : null;
+    reachable[0] = 1L;
+
+    for (int i = 0; i < values.length; i++) {
+      int value = values[i];
+      if (value < 0) {
+        throw new IllegalArgumentException("Values must not be negative: " + value + " at " + i);
+      }
+      if (value == 0 || value > maxSum) {
+        continue;
+      }
+
+      if (next == null) {
+        shiftOr(reachable, reachable, value, 0, words, lastWordMask, firstReached, i);
+      } else {
+        POOL.invoke(new ShiftOrTask(reachable, next, value, 0, words, lastWordMask, firstReached, i));
+        long[] swap = reachable;
+        reachable = next;
+        next = swap;
+      }
+    }
+    reachable[words - 1] &= lastWordMask;
+    return reachable;
+  }
+
+  /**
+   * to[k] = from[k] | (from << shift)[k] for the words k in [fromWord, toWord), from the highest word down so that it
+   * also works in place, recording the index of the element for each newly reached sum.
+   */
+  private static void shiftOr(long[] from, long[] to, int shift, int fromWord, int toWord, long lastWordMask,
+      int[] firstReached, int element) {
+    int wordShift = shift >>> 6;
+    int bitShift = shift & 63;
+    int lastWord = from.length - 1;
+
+    for (int k = toWord - 1; k >= fromWord; k--) {
+      long shifted = 0;
+      int source = k - wordShift;
+      if (source >= 0) {
+        shifted = from[source] << bitShift;
+        if (bitShift != 0 && source > 0) {
+          shifted |= from[source - 1] >>> (64 - bitShift);
+        }
+      }
+
+      long old = from[k];
+      if (firstReached != null) {
+        long reached = shifted & ~old;
+        if (k == lastWord) {
+          reached &= lastWordMask;
+        }
+        while (reached != 0) {
+          firstReached[(k << 6) + Long.numberOfTrailingZeros(reached)] = element;
+          reached &= reached - 1;
+        }
+      }
+      to[k] = old | shifted;
+    }
+  }
+
+  private static class ShiftOrTask extends RecursiveAction {
+    private final long[] _from;
+    private final long[] _to;
+    private final int _shift;
+    private final int _fromWord;
+    private final int _toWord;
+    private final long _lastWordMask;
+    private final int[] _firstReached;
+    private final int _element;
+
+    ShiftOrTask(long[] from, long[] to, int shift, int fromWord, int toWord, long lastWordMask, int[] firstReached,
+        int element) {
+      _from = from;
+      _to = to;
+      _shift = shift;
+      _fromWord = fromWord;
+      _toWord = toWord;
+      _lastWordMask = lastWordMask;
+      _firstReached = firstReached;
+      _element = element;
+    }
+
+    @Override
+    protected void compute() {
+      if (_toWord - _fromWord <= TASK_WORDS) {
+        shiftOr(_from, _to, _shift, _fromWord, _toWord, _lastWordMask, _firstReached, _element);
+      } else {
+        int mid = _fromWord + (_toWord - _fromWord) / 2;
+        invokeAll(
+            new ShiftOrTask(_from, _to, _shift, _fromWord, mid, _lastWordMask, _firstReached, _element),
+            new ShiftOrTask(_from, _to, _shift, mid, _toWord, _lastWordMask, _firstReached, _element));
+      }
+    }
+  }
+}
@@ -1,9 +1,10 @@
 package com.learning.java.algorithmdemo;
 
+import com.learning.java.utils.LongMemoTable;
 import com.learning.java.utils.SpaceTimeComplexity;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * An algorithm demo which demonstrates three solutions to calculating a Fibonacci sequence to the Nth number.
@@ -35,11 +36,13 @@ public class CalculateFibonacciSequence implements AlgorithmDemo {
 
 
     /**
-     * Calculates the nth Fibonacci number using memoized recursion
+     * Calculates the nth Fibonacci number using memoized recursion. The cache is a primitive keyed
+     * {@link LongMemoTable}, so nothing is boxed, each lookup is a single probe, and each result is stored once.
      * @param n the Fibonacci sequence number to calculate
+     * @param cache the memoization cache
      * @return the final Nth Fibonacci number.
      */
-    private int fibonacciMemoized(int n, Map<Integer, Integer> cache) {
+    private int fibonacciMemoized(int n, LongMemoTable cache) {
         _spaceTimeComplexity.call();
         _spaceTimeComplexity.push();
         if (n == 0 || n == 1) {
@@ -47,24 +50,22 @@ public class CalculateFibonacciSequence implements AlgorithmDemo {
             return n;
         }
 
-        if (cache.containsKey(n)) {
-            return cache.get(n);
+        long cached = cache.get(n);
+        if (cached != LongMemoTable.MISSING) {
+            _spaceTimeComplexity.pop();
+            return (int) cached;
         }
 
-        // left and right binary search tree
+        // left and right binary search tree, the left call fills the cache for the right one
         int fibL = fibonacciMemoized(n - 1, cache);
         int fibR = fibonacciMemoized(n - 2, cache);
 
-        // cache the values for memoization
-        cache.put(n - 1, fibL);
-        cache.put(n - 2, fibR);
-
         var result = fibL + fibR;
 
-        // cache the result value as well
+        // cache the result value
         cache.put(n, result);
         _spaceTimeComplexity.pop();
-        return fibL + fibR;
+        return result;
     }
 
     private int fibonacciTabulated(int n) {
@@ -112,7 +113,7 @@ public class CalculateFibonacciSequence implements AlgorithmDemo {
         // recursive run (complexity is O(2^N) with O(n) space)
         for(int i = 0; i < totalRuns; i++) {
             _spaceTimeComplexity.timeStart();
-            int fibNumber = fibonacciMemoized(i, new HashMap<>());
+            int fibNumber = fibonacciMemoized(i, new LongMemoTable());
             _spaceTimeComplexity.timeStop();
             System.out.printf("Fib: %d, ", fibNumber);
             _spaceTimeComplexity.addAnswer();
@@ -131,9 +132,107 @@ public class CalculateFibonacciSequence implements AlgorithmDemo {
             _spaceTimeComplexity.printStats();
             _spaceTimeComplexity.reset();
         }
+
+        System.out.println("--------------------- Long Fast Path Fibonacci ---------------------");
+        // table lookup, the int variants above overflow after n = 46, a long holds up to n = 92
+        _spaceTimeComplexity.timeStart();
+        long fibLong = FibonacciEngine.fibonacciLong(FibonacciEngine.MAX_LONG_N);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Fib(%d): %d, ", FibonacciEngine.MAX_LONG_N, fibLong);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("--------------------- Fast Doubling / Matrix Power Fibonacci ---------------------");
+        // complexity is O(log n) multiplications of numbers up to 0.69n bits
+        for (int n = 10; n <= 10_000_000; n *= 10) {
+            _spaceTimeComplexity.timeStart();
+            BigInteger fibDoubling = FibonacciEngine.fastDoubling(n);
+            _spaceTimeComplexity.timeStop();
+            System.out.printf("Fast doubling Fib(%d) bits: %d, ", n, fibDoubling.bitLength());
+            _spaceTimeComplexity.addAnswer();
+            _spaceTimeComplexity.printStats();
+            _spaceTimeComplexity.reset();
+
+            _spaceTimeComplexity.timeStart();
+            BigInteger fibMatrix = FibonacciEngine.matrixPower(n);
+            _spaceTimeComplexity.timeStop();
+            System.out.printf("Matrix power Fib(%d) bits: %d, matches: %b, ", n, fibMatrix.bitLength(),
+                    fibMatrix.equals(fibDoubling));
+            _spaceTimeComplexity.addAnswer();
+            _spaceTimeComplexity.printStats();
+            _spaceTimeComplexity.reset();
+        }
+
+        System.out.println("--------------------- Modular Fibonacci ---------------------");
+        // O(sqrt m) once per modulus to find its Pisano period, then O(log m) per query
+        ModularFibonacci modularFibonacci = new ModularFibonacci();
+        final long modulus = 1_000_000_007L;
+        _spaceTimeComplexity.timeStart();
+        long fibMod = modularFibonacci.fibonacci(1_000_000_000_000_000_000L, modulus);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Fib(10^18) mod %d: %d, Pisano period: %d, ", modulus, fibMod,
+                modularFibonacci.pisanoPeriod(modulus));
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        _spaceTimeComplexity.timeStart();
+        fibMod = modularFibonacci.fibonacci(BigInteger.TEN.pow(1_000), modulus);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Fib(10^1000) mod %d: %d, ", modulus, fibMod);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        final int batchSize = 2_000_000;
+        final long[] moduli = {1_000_000_007L, 998_244_353L, 1_000_000L, 12_345L};
+        long[] batchN = new long[batchSize];
+        long[] batchM = new long[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            batchN[i] = (long) (Math.random() * Long.MAX_VALUE);
+            batchM[i] = moduli[i % moduli.length];
+        }
+
+        _spaceTimeComplexity.timeStart();
+        long[] sequential = new long[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            sequential[i] = modularFibonacci.fibonacci(batchN[i], batchM[i]);
+        }
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Sequential batch of %d, ", batchSize);
+        _spaceTimeComplexity.setTotalSize(batchSize);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        _spaceTimeComplexity.timeStart();
+        long[] parallel = modularFibonacci.fibonacci(batchN, batchM);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Parallel batch of %d, matches: %b, ", batchSize, Arrays.equals(sequential, parallel));
+        _spaceTimeComplexity.setTotalSize(batchSize);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
     }
 
     /*
+     * Modular Fibonacci, using the cached Pisano period of each modulus.
+     * (single core, with more cores the parallel batch divides the time by the core count)
+     * Fib(10^18) mod 1000000007: 209783453, Pisano period: 2000000016, Total Size: 0, Max Stack 0, Total Answers 1, Total Time 1523061 (0.001523 sec)
+     * Fib(10^1000) mod 1000000007: 552179166, Total Size: 0, Max Stack 0, Total Answers 1, Total Time 685213 (0.000685 sec)
+     * Sequential batch of 2000000, Total Size: 2000000, Max Stack 0, Total Answers 0, Total Time 767204822 (0.767205 sec)
+     * Parallel batch of 2000000, matches: true, Total Size: 2000000, Max Stack 0, Total Answers 0, Total Time 771750621 (0.771751 sec)
+     *
+     * Fast doubling and matrix power on a single core (with more cores the largest products run as parallel
+     * Karatsuba tasks)
+     *
+     * --------------------- Fast Doubling / Matrix Power Fibonacci ---------------------
+     * Fast doubling Fib(100000) bits: 69424, Total Answers 1, Total Time 24801814 (0.024802 sec)
+     * Matrix power Fib(100000) bits: 69424, matches: true, Total Answers 1, Total Time 60091470 (0.060091 sec)
+     * Fast doubling Fib(1000000) bits: 694241, Total Answers 1, Total Time 214508111 (0.214508 sec)
+     * Matrix power Fib(1000000) bits: 694241, matches: true, Total Answers 1, Total Time 445995581 (0.445996 sec)
+     * Fast doubling Fib(10000000) bits: 6942418, Total Answers 1, Total Time 2150569064 (2.150569 sec)
+     * Matrix power Fib(10000000) bits: 6942418, matches: true, Total Answers 1, Total Time 4469034387 (4.469034 sec)
+     *
      * The output is as follows for the first 10 fibonacci numbers
      *
      * --------------------- Recursive Fibonacci ---------------------
@@ -0,0 +1,218 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+
+/**
+ * Edit distances, the close relatives of the LCS: the fewest insertions, deletions and substitutions (Levenshtein), or
+ * the cheapest with a cost for each kind of edit (weighted), that turn one sequence into the other. With insertions and
+ * deletions costing 1 and substitutions 2, the weighted distance is m + n - 2 * LCS.
+ *
+ * Most queries only ask whether two sequences are within k edits. Those use Ukkonen's band: a cell (i, j) with
+ * |i - j| * (cheapest insertion or deletion) > k cannot lie on a path of cost k or less, so only a diagonal band of the
+ * table is filled, O(k * n), and the query gives up as soon as every cell of a row costs more than k.
+ *
+ * The unbounded Levenshtein distance uses the bit-parallel algorithm of Myers, in Hyyro's form for patterns longer
+ * than 64: a column of the table is held as vertical +1 / -1 delta bit vectors, advanced 64 cells per long operation,
+ * with the horizontal delta at the bottom of each 64 bit block carried into the next.
+ *
+ * An instance keeps its rows, bit vectors and match masks between calls, growing them as needed, so a thread running
+ * many queries allocates nothing after the first few. Instances are not thread safe, use one per thread.
+ */
+public class EditDistance {
+    // larger than any distance, and still safe to add a cost to
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private int[] _previous = new int[0];
+    private int[] _current = new int[0];
+    private long[] _pv = new long[0];
+    private long[] _mv = new long[0];
+    // the match masks of the pattern, words longs per symbol row
+    private long[] _matchMasks = new long[0];
+    // the match mask row of each symbol, -1 for symbols not in the pattern, reset after each query
+    private int[] _symbolRows = new int[0];
+
+    /**
+     * @return the Levenshtein distance of seq1 and seq2
+     */
+    public int levenshtein(char[] seq1, char[] seq2) {
+        // the shorter sequence as the pattern needs the fewest words per column
+        char[] pattern = seq1.length <= seq2.length ? seq1 : seq2;
+        char[] text = pattern == seq1 ? seq2 : seq1;
+        if (pattern.length == 0) {
+            return text.length;
+        }
+
+        int words = (pattern.length + Long.SIZE - 1) / Long.SIZE;
+        buildMatchMasks(pattern, words);
+        if (_pv.length < words) {
+            _pv = new long[words];
+            _mv = new long[words];
+        }
+        long[] pv = _pv;
+        long[] mv = _mv;
+        Arrays.fill(pv, 0, words, -1L);
+        Arrays.fill(mv, 0, words, 0L);
+
+        // the bit of the last block holding the last row of the table
+        int lastBit = (pattern.length - 1) & (Long.SIZE - 1);
+        int distance = pattern.length;
+        for (char c : text) {
+            int row = c < _symbolRows.length ? _symbolRows[c] : -1;
+            int maskOffset = row * words;
+            // the first row of the table is 0, 1, 2, ..., so it steps +1 into every column
+            int horizontal = 1;
+            for (int b = 0; b < words; b++) {
+                long eq = row >= 0 ? _matchMasks[maskOffset + b] : 0L;
+                long p = pv[b];
+                long m = mv[b];
+
+                long xv = eq | m;
+                long carryNegative = horizontal < 0 ? 1L : 0L;
+                eq |= carryNegative;
+                long xh = (((eq & p) + p) ^ p) | eq;
+                long ph = m | ~(xh | p);
+                long mh = p & xh;
+
+                int bit = b == words - 1 ? lastBit : Long.SIZE - 1;
+                int out = (int) ((ph >>> bit) & 1) - (int) ((mh >>> bit) & 1);
+
+                ph <<= 1;
+                mh <<= 1;
+                mh |= carryNegative;
+                ph |= horizontal > 0 ? 1L : 0L;
+                pv[b] = mh | ~(xv | ph);
+                mv[b] = ph & xv;
+                horizontal = out;
+            }
+            distance += horizontal;
+        }
+
+        clearSymbolRows(pattern);
+        return distance;
+    }
+
+    /**
+     * @return the Levenshtein distance of seq1 and seq2 if it is at most k, otherwise -1
+     */
+    public int levenshtein(char[] seq1, char[] seq2, int k) {
+        return weighted(seq1, seq2, 1, 1, 1, k);
+    }
+
+    /**
+     * @return the cheapest cost of edits turning seq1 into seq2
+     */
+    public int weighted(char[] seq1, char[] seq2, int insertCost, int deleteCost, int substituteCost) {
+        return weighted(seq1, seq2, insertCost, deleteCost, substituteCost, INFINITY - 1);
+    }
+
+    /**
+     * The banded dynamic program, two rolling rows over only the cells within the band of cost k.
+     *
+     * @param seq1 the source sequence
+     * @param seq2 the target sequence
+     * @param insertCost the cost of inserting a character of seq2, from 1 to Integer.MAX_VALUE / 2
+     * @param deleteCost the cost of deleting a character of seq1, from 1 to Integer.MAX_VALUE / 2
+     * @param substituteCost the cost of replacing a character of seq1 with one of seq2, from 1 to
+     *     Integer.MAX_VALUE / 2
+     * @param k the largest cost of interest, anything over Integer.MAX_VALUE / 2 - 1 is treated as that
+     * @return the cheapest cost of edits turning seq1 into seq2 if it is at most k, otherwise -1
+     */
+    public int weighted(char[] seq1, char[] seq2, int insertCost, int deleteCost, int substituteCost, int k) {
+        // a cell is at most INFINITY, so adding a cost up to INFINITY to it cannot overflow
+        if (insertCost < 1 || deleteCost < 1 || substituteCost < 1 || insertCost > INFINITY || deleteCost > INFINITY
+                || substituteCost > INFINITY || k < 0) {
+            throw new IllegalArgumentException("Costs must be from 1 to " + INFINITY + " and k non negative, insert: "
+                    + insertCost + ", delete: " + deleteCost + ", substitute: " + substituteCost + ", k: " + k);
+        }
+        k = Math.min(k, INFINITY - 1);
+        int m = seq1.length;
+        int n = seq2.length;
+        // any path ends at least this far off the main diagonal
+        long lengthCost = m >= n ? (long) (m - n) * deleteCost : (long) (n - m) * insertCost;
+        if (lengthCost > k) {
+            return -1;
+        }
+        int band = Math.min(Math.max(m, n), k / Math.min(insertCost, deleteCost));
+
+        if (_previous.length < n + 2) {
+            _previous = new int[n + 2];
+            _current = new int[n + 2];
+        }
+        int[] previous = _previous;
+        int[] current = _current;
+
+        // row 0, inserting the first j characters of seq2
+        int firstHigh = Math.min(n, band);
+        for (int j = 0; j <= firstHigh; j++) {
+            previous[j] = cap((long) j * insertCost, k);
+        }
+        previous[firstHigh + 1] = INFINITY;
+
+        for (int i = 1; i <= m; i++) {
+            int low = Math.max(1, i - band);
+            int high = Math.min(n, i + band);
+            char c = seq1[i - 1];
+
+            // the cell left of the band, deleting the first i characters of seq1 when it is column 0
+            current[low - 1] = low == 1 ? cap((long) i * deleteCost, k) : INFINITY;
+            int rowMinimum = current[low - 1];
+            for (int j = low; j <= high; j++) {
+                int cost = previous[j - 1] + (c == seq2[j - 1] ? 0 : substituteCost);
+                cost = Math.min(cost, previous[j] + deleteCost);
+                cost = Math.min(cost, current[j - 1] + insertCost);
+                cost = cost > k ? INFINITY : cost;
+                current[j] = cost;
+                rowMinimum = Math.min(rowMinimum, cost);
+            }
+            if (high < n) {
+                current[high + 1] = INFINITY;
+            }
+
+            if (rowMinimum > k) {
+                // every path to the end passes through this row
+                return -1;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[n] > k ? -1 : previous[n];
+    }
+
+    private static int cap(long cost, int k) {
+        return cost > k ? INFINITY : (int) cost;
+    }
+
+    private void buildMatchMasks(char[] pattern, int words) {
+        char largest = 0;
+        for (char c : pattern) {
+            largest = (char) Math.max(largest, c);
+        }
+        if (_symbolRows.length <= largest) {
+            _symbolRows = new int[largest + 1];
+            Arrays.fill(_symbolRows, -1);
+        }
+
+        int symbols = 0;
+        for (char c : pattern) {
+            if (_symbolRows[c] < 0) {
+                _symbolRows[c] = symbols++;
+            }
+        }
+        if (_matchMasks.length < symbols * words) {
+            _matchMasks = new long[symbols * words];
+        }
+        Arrays.fill(_matchMasks, 0, symbols * words, 0L);
+        for (int i = 0; i < pattern.length; i++) {
+            _matchMasks[_symbolRows[pattern[i]] * words + (i >>> 6)] |= 1L << i;
+        }
+    }
+
+    private void clearSymbolRows(char[] pattern) {
+        for (char c : pattern) {
+            _symbolRows[c] = -1;
+        }
+    }
+}
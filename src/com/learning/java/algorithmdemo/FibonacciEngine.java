@@ -0,0 +1,142 @@
+package com.learning.java.algorithmdemo;
+
+import com.learning.java.algorithmdemo.concurrency.ParallelKaratsuba;
+
+import java.math.BigInteger;
+
+/**
+ * Arbitrary precision Fibonacci numbers in O(log n) multiplications, rather than the O(n) additions of the tabulated
+ * solution in {@link CalculateFibonacciSequence}.
+ *
+ * Fast doubling uses the identities
+ *
+ * F(2k)     = F(k) * (2 * F(k + 1) - F(k))
+ * F(2k + 1) = F(k)^2 + F(k + 1)^2
+ *
+ * walking the bits of n from the most significant, so each bit costs 3 multiplications. The matrix power solution
+ * raises [[1, 1], [1, 0]] to the nth power by repeated squaring, which costs more multiplications per bit but is the
+ * classic form of the same idea. Large products go through {@link ParallelKaratsuba}.
+ */
+public class FibonacciEngine {
+    // F(92) is the largest Fibonacci number which fits in a long
+    public static final int MAX_LONG_N = 92;
+
+    private static final long[] SMALL_FIBONACCI = new long[MAX_LONG_N + 1];
+
+    static {
+        SMALL_FIBONACCI[1] = 1;
+        for (int i = 2; i <= MAX_LONG_N; i++) {
+            SMALL_FIBONACCI[i] = SMALL_FIBONACCI[i - 1] + SMALL_FIBONACCI[i - 2];
+        }
+    }
+
+    /**
+     * The long fast path, a table lookup.
+     *
+     * @param n the Fibonacci number to return, up to {@link #MAX_LONG_N}
+     * @return F(n)
+     */
+    public static long fibonacciLong(int n) {
+        checkN(n);
+        if (n > MAX_LONG_N) {
+            throw new ArithmeticException("F(" + n + ") does not fit in a long");
+        }
+        return SMALL_FIBONACCI[n];
+    }
+
+    /**
+     * Calculates the nth Fibonacci number by fast doubling.
+     *
+     * @param n the Fibonacci number to calculate
+     * @return F(n)
+     */
+    public static BigInteger fastDoubling(int n) {
+        checkN(n);
+        if (n <= MAX_LONG_N) {
+            return BigInteger.valueOf(SMALL_FIBONACCI[n]);
+        }
+
+        // start from the highest bits of n which still fit the table, then double for each remaining bit
+        int shift = 31 - Integer.numberOfLeadingZeros(n);
+        int k = 0;
+        while (shift >= 0 && ((k << 1) | ((n >>> shift) & 1)) + 1 <= MAX_LONG_N) {
+            k = (k << 1) | ((n >>> shift) & 1);
+            shift--;
+        }
+
+        BigInteger fk = BigInteger.valueOf(SMALL_FIBONACCI[k]);
+        BigInteger fk1 = BigInteger.valueOf(SMALL_FIBONACCI[k + 1]);
+
+        for (; shift >= 0; shift--) {
+            // F(2k) and F(2k + 1) from F(k) and F(k + 1)
+            BigInteger f2k = ParallelKaratsuba.multiply(fk, fk1.shiftLeft(1).subtract(fk));
+            BigInteger f2k1 = ParallelKaratsuba.square(fk).add(ParallelKaratsuba.square(fk1));
+
+            if (((n >>> shift) & 1) == 0) {
+                fk = f2k;
+                fk1 = f2k1;
+            } else {
+                // step one further, F(2k + 2) = F(2k) + F(2k + 1)
+                fk = f2k1;
+                fk1 = f2k.add(f2k1);
+            }
+        }
+
+        return fk;
+    }
+
+    /**
+     * Calculates the nth Fibonacci number by raising [[1, 1], [1, 0]] to the nth power, which is
+     * [[F(n + 1), F(n)], [F(n), F(n - 1)]]. The matrix is symmetric so only 3 of its entries are tracked.
+     *
+     * @param n the Fibonacci number to calculate
+     * @return F(n)
+     */
+    public static BigInteger matrixPower(int n) {
+        checkN(n);
+        if (n <= MAX_LONG_N) {
+            return BigInteger.valueOf(SMALL_FIBONACCI[n]);
+        }
+
+        // result = identity
+        BigInteger r11 = BigInteger.ONE;
+        BigInteger r12 = BigInteger.ZERO;
+        BigInteger r22 = BigInteger.ONE;
+
+        // base = [[1, 1], [1, 0]]
+        BigInteger b11 = BigInteger.ONE;
+        BigInteger b12 = BigInteger.ONE;
+        BigInteger b22 = BigInteger.ZERO;
+
+        int remaining = n;
+        while (remaining > 0) {
+            if ((remaining & 1) == 1) {
+                BigInteger m11 = ParallelKaratsuba.multiply(r11, b11).add(ParallelKaratsuba.multiply(r12, b12));
+                BigInteger m12 = ParallelKaratsuba.multiply(r11, b12).add(ParallelKaratsuba.multiply(r12, b22));
+                BigInteger m22 = ParallelKaratsuba.multiply(r12, b12).add(ParallelKaratsuba.multiply(r22, b22));
+                r11 = m11;
+                r12 = m12;
+                r22 = m22;
+            }
+
+            remaining >>>= 1;
+            if (remaining > 0) {
+                BigInteger b12Squared = ParallelKaratsuba.square(b12);
+                BigInteger s11 = ParallelKaratsuba.square(b11).add(b12Squared);
+                BigInteger s12 = ParallelKaratsuba.multiply(b12, b11.add(b22));
+                BigInteger s22 = b12Squared.add(ParallelKaratsuba.square(b22));
+                b11 = s11;
+                b12 = s12;
+                b22 = s22;
+            }
+        }
+
+        return r12;
+    }
+
+    private static void checkN(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.learning.java.algorithmdemo;
 
+import com.learning.java.utils.DataGeneration;
 import com.learning.java.utils.SpaceTimeComplexity;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -9,6 +12,28 @@ import com.learning.java.utils.SpaceTimeComplexity;
  */
 public class FindEqualPartitions implements AlgorithmDemo {
 
+  // the size of the large input for the bitset run
+  private static final int LARGE_SIZE = 2_000;
+  private static final int LARGE_MAX_VALUE = 50_000;
+  // the size of the input for the parallel recursive run, far too many elements for the plain recursion
+  private static final int PARALLEL_RECURSIVE_SIZE = 100;
+  private static final int PARALLEL_RECURSIVE_MAX_VALUE = 500;
+  // the size of the large valued input for the meet in the middle run
+  private static final int MEET_IN_THE_MIDDLE_SIZE = 44;
+  private static final long MEET_IN_THE_MIDDLE_MAX_VALUE = 1_000_000_000_000_000L;
+  // the jobs and workers of the multiway run, and how long the branch and bound may search
+  private static final int MULTIWAY_SIZE = 40;
+  private static final int MULTIWAY_PARTS = 5;
+  private static final long MULTIWAY_MAX_VALUE = 1_000_000;
+  private static final long MULTIWAY_TIMEOUT_MILLIS = 2_000;
+  // the multiset, largest sum, and batches of the subset sum index run
+  private static final int INDEX_SIZE = 1_000;
+  private static final int INDEX_MAX_VALUE = 500;
+  private static final int INDEX_MAX_SUM = 200_000;
+  private static final int INDEX_BATCHES = 20;
+  private static final int INDEX_BATCH_UPDATES = 10;
+  private static final int INDEX_BATCH_QUERIES = 1_000_000;
+
   private final SpaceTimeComplexity _spaceTimeComplexity = new SpaceTimeComplexity();
   // find the sum of some elements in an array
   int sumOfElements(int[] array, int n) {
@@ -58,6 +83,20 @@ public class FindEqualPartitions implements AlgorithmDemo {
     return isMatch;
   }
 
+  /**
+   * The recursive mechanism forked across a ForkJoin pool with {@link ParallelSubsetSum}, remembering the
+   * (n, remainingSum) pairs which have no match and stopping every branch once one finds a match.
+   *
+   * @param array the input
+   * @param n the current index
+   * @param remainingSum the remaining sum to match given the sums so far.
+   * @return true if subset sum is matched.
+   */
+  public boolean isSubsetSumMatchParallel(int[] array, int n, int remainingSum) {
+    _spaceTimeComplexity.addSize(n);
+    return ParallelSubsetSum.isSubsetSumMatch(array, n, remainingSum);
+  }
+
   /**
    * The recursive solution is worst case O(2^n) since it may need to check every subsequence, and splits into
    * two recursive branches.
@@ -126,6 +165,18 @@ public class FindEqualPartitions implements AlgorithmDemo {
     return partitionTable[sumBoundary - 1][n];
   }
 
+  /**
+   * The bitset solution, see {@link BitsetSubsetSum}. One bit per sum rather than a boolean per (sum, element), and
+   * 64 sums per operation.
+   *
+   * @param array the input array
+   * @return the indexes of the elements in each of two partitions with equal sums, or null if there are none
+   */
+  public int[][] equalSumBitset(int[] array) {
+    _spaceTimeComplexity.addSize(array.length);
+    return BitsetSubsetSum.partition(array);
+  }
+
   @Override
   public void run() {
     int[] array = new int[]{2, 500, 2, 500, 2000, 1000, 1000 };
@@ -136,11 +187,203 @@ public class FindEqualPartitions implements AlgorithmDemo {
     _spaceTimeComplexity.printStats();
     _spaceTimeComplexity.reset();
 
+    _spaceTimeComplexity.timeStart();
+    isSubsetSum = isSubsetSumMatchParallel(array, array.length, sumOfElements(array, array.length) / 2);
+    _spaceTimeComplexity.timeStop();
+    System.out.println("Parallel recursive - is subset sum: " + isSubsetSum);
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+
     _spaceTimeComplexity.timeStart();
     isSubsetSum = equalSumDynamic(array, array.length);
     System.out.println("Dynamic - is subset sum: " + isSubsetSum);
     _spaceTimeComplexity.timeStop();
     _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+
+    _spaceTimeComplexity.timeStart();
+    int[][] partitions = equalSumBitset(array);
+    _spaceTimeComplexity.timeStop();
+    System.out.println("Bitset - is subset sum: " + (partitions != null) + ", partitions: "
+        + describePartitions(array, partitions));
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+
+    int[] large = DataGeneration.randomArray(LARGE_SIZE, LARGE_MAX_VALUE);
+    long largeSum = 0;
+    for (int value : large) {
+      largeSum += value;
+    }
+    // keep the sum even, so there is a chance of a partition
+    large[0] += (int) (largeSum % 2);
+    largeSum += largeSum % 2;
+    System.out.printf("Bitset - %d elements, sum %d, a boolean table would need %d MB%n", large.length, largeSum,
+        (largeSum / 2 + 1) * (large.length + 1) / (1024 * 1024));
+    _spaceTimeComplexity.timeStart();
+    partitions = equalSumBitset(large);
+    _spaceTimeComplexity.timeStop();
+    System.out.println("Bitset - is subset sum: " + (partitions != null) + ", part sizes: "
+        + (partitions == null ? "-" : partitions[0].length + " and " + partitions[1].length) + ", equal sums: "
+        + (partitions != null && sumOf(large, partitions[0]) == sumOf(large, partitions[1])));
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+
+    runParallelRecursive(PARALLEL_RECURSIVE_SIZE, PARALLEL_RECURSIVE_MAX_VALUE);
+    runMeetInTheMiddle(MEET_IN_THE_MIDDLE_SIZE, MEET_IN_THE_MIDDLE_MAX_VALUE);
+    runMultiway(MULTIWAY_SIZE, MULTIWAY_PARTS, MULTIWAY_MAX_VALUE);
+    runIndex();
+  }
+
+  /**
+   * Builds a {@link SubsetSumIndex}, then replaces some of its values and answers a batch of target queries in turn.
+   */
+  private void runIndex() {
+    int[] values = DataGeneration.randomArray(INDEX_SIZE, INDEX_MAX_VALUE);
+    SubsetSumIndex index = new SubsetSumIndex(INDEX_MAX_SUM);
+    System.out.printf("Index - %d values up to %d, sums up to %d%n", values.length, INDEX_MAX_VALUE, INDEX_MAX_SUM);
+    _spaceTimeComplexity.timeStart();
+    index.update(values, new int[0]);
+    _spaceTimeComplexity.timeStop();
+    System.out.println("Index - built, can partition: " + index.canPartition());
+    _spaceTimeComplexity.setTotalSize(values.length);
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+
+    int[] targets = new int[INDEX_BATCH_QUERIES];
+    long reachable = 0;
+    _spaceTimeComplexity.timeStart();
+    for (int batch = 0; batch < INDEX_BATCHES; batch++) {
+      int[] added = DataGeneration.randomArray(INDEX_BATCH_UPDATES, INDEX_MAX_VALUE);
+      int[] removed = new int[INDEX_BATCH_UPDATES];
+      for (int i = 0; i < removed.length; i++) {
+        int slot = batch * INDEX_BATCH_UPDATES + i;
+        removed[i] = values[slot];
+        values[slot] = added[i];
+      }
+      index.update(added, removed);
+
+      for (int i = 0; i < targets.length; i++) {
+        targets[i] = (int) (Math.random() * (INDEX_MAX_SUM + 1));
+      }
+      for (boolean answer : index.isReachable(targets)) {
+        reachable += answer ? 1 : 0;
+      }
+    }
+    _spaceTimeComplexity.timeStop();
+    System.out.printf("Index - %d batches of %d updates and %d queries, %d reachable%n", INDEX_BATCHES,
+        2 * INDEX_BATCH_UPDATES, INDEX_BATCH_QUERIES, reachable);
+    _spaceTimeComplexity.setTotalSize((long) INDEX_BATCHES * INDEX_BATCH_QUERIES);
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+  }
+
+  /**
+   * Spreads random job lengths over k workers with {@link MultiwayPartition}, first by Karmarkar-Karp and then by the
+   * branch and bound search under a deadline.
+   */
+  private void runMultiway(int n, int k, long maxValue) {
+    long[] values = new long[n];
+    long total = 0;
+    for (int i = 0; i < n; i++) {
+      values[i] = 1 + (long) (Math.random() * maxValue);
+      total += values[i];
+    }
+    System.out.printf("Multiway - %d values up to %d into %d parts, total %d, ideal part %d%n", n, maxValue, k,
+        total, (total + k - 1) / k);
+
+    _spaceTimeComplexity.timeStart();
+    MultiwayPartition.Result result = MultiwayPartition.karmarkarKarp(values, k);
+    _spaceTimeComplexity.timeStop();
+    System.out.println("Karmarkar-Karp - largest part: " + result.largest + ", part sums: "
+        + Arrays.toString(result.sums));
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+
+    _spaceTimeComplexity.timeStart();
+    result = MultiwayPartition.branchAndBound(values, k, MULTIWAY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    _spaceTimeComplexity.timeStop();
+    System.out.println("Branch and bound - largest part: " + result.largest + ", optimal: " + result.optimal
+        + ", part sums: " + Arrays.toString(result.sums));
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+  }
+
+  /**
+   * Runs the parallel recursion over even values towards an odd target, which no branch matches so every
+   * (n, remainingSum) pair is searched once, then over random values towards half their sum.
+   */
+  private void runParallelRecursive(int n, int maxValue) {
+    int[] values = DataGeneration.randomArray(n, maxValue / 2);
+    for (int i = 0; i < n; i++) {
+      values[i] = 2 * Math.max(1, values[i]);
+    }
+    // the sum of even values is even, so setting the low bit of half of it gives an odd target no subset reaches
+    runParallelRecursive(values, (sumOfElements(values, n) / 2) | 1);
+
+    values = DataGeneration.randomArray(n, maxValue);
+    runParallelRecursive(values, sumOfElements(values, n) / 2);
+  }
+
+  private void runParallelRecursive(int[] values, int target) {
+    System.out.printf("Parallel recursive - %d elements, target %d%n", values.length, target);
+    _spaceTimeComplexity.timeStart();
+    boolean isSubsetSum = isSubsetSumMatchParallel(values, values.length, target);
+    _spaceTimeComplexity.timeStop();
+    boolean expected = BitsetSubsetSum.subsetSum(values, target) != null;
+    System.out.println("Parallel recursive - is subset sum: " + isSubsetSum + ", bitset agrees: "
+        + (isSubsetSum == expected));
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+  }
+
+  /**
+   * Partitions random values far too large for a table indexed by sum with {@link MeetInTheMiddlePartition}.
+   */
+  private void runMeetInTheMiddle(int n, long maxValue) {
+    long[] values = new long[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = (long) (Math.random() * maxValue);
+    }
+    System.out.printf("Meet in the middle - %d values up to %d%n", n, maxValue);
+    _spaceTimeComplexity.timeStart();
+    MeetInTheMiddlePartition.Partition partition = MeetInTheMiddlePartition.closestPartition(values);
+    _spaceTimeComplexity.timeStop();
+    long first = 0;
+    for (int index : partition.first) {
+      first += values[index];
+    }
+    long second = 0;
+    for (int index : partition.second) {
+      second += values[index];
+    }
+    System.out.println("Meet in the middle - part sums: " + first + " and " + second + ", difference: "
+        + partition.difference);
+    _spaceTimeComplexity.setTotalSize(2L << (n / 2));
+    _spaceTimeComplexity.printStats();
+    _spaceTimeComplexity.reset();
+  }
+
+  private static long sumOf(int[] array, int[] indexes) {
+    long sum = 0;
+    for (int index : indexes) {
+      sum += array[index];
+    }
+    return sum;
+  }
+
+  private static String describePartitions(int[] array, int[][] partitions) {
+    if (partitions == null) {
+      return "none";
+    }
+    StringBuilder description = new StringBuilder();
+    for (int[] partition : partitions) {
+      int[] values = new int[partition.length];
+      for (int i = 0; i < partition.length; i++) {
+        values[i] = array[partition[i]];
+      }
+      description.append(Arrays.toString(values)).append(" = ").append(sumOf(array, partition)).append(' ');
+    }
+    return description.toString().trim();
 
   }
 }
@@ -0,0 +1,198 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Hirschberg's divide and conquer LCS, which returns the longest common subsequence itself (not just its length) in
+ * O(mn) time but only O(min(m, n)) space, so it can reconstruct the LCS of sequences far too long for a full table.
+ *
+ * To split a problem, the first half of seq1 is run forward against seq2, and the second half backward against seq2,
+ * each keeping a single row of LCS lengths. The column k where forward[k] + backward[k] is largest is where an optimal
+ * alignment crosses the middle of seq1, so seq1[0, mid) with seq2[0, k) and seq1[mid, end) with seq2[k, end) are
+ * solved independently, as two parallel ForkJoin tasks, each writing its half of the answer straight into place.
+ */
+public class HirschbergLcs {
+    // subproblems with at most this many cells are solved with a full table and a backtrace
+    static final int SMALL_TABLE_CELLS = 1 << 14;
+    // subproblems with fewer cells than this are not worth forking
+    static final long PARALLEL_THRESHOLD_CELLS = 1L << 22;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * @param seq1 the first sequence
+     * @param seq2 the second sequence
+     * @return a longest common subsequence of both
+     */
+    public static char[] lcs(char[] seq1, char[] seq2) {
+        // rows are sized by the shorter sequence, the LCS is the same either way round
+        char[] longer = seq1.length >= seq2.length ? seq1 : seq2;
+        char[] shorter = longer == seq1 ? seq2 : seq1;
+
+        // the LCS is at most as long as the shorter sequence, trimmed once its length is known
+        char[] result = new char[shorter.length];
+        int length = POOL.invoke(new HirschbergTask(longer, 0, longer.length, shorter, 0, shorter.length, result, 0));
+        return Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Solves seq1[from1, to1) against seq2[from2, to2), writing the LCS into result from resultOffset, and returning
+     * its length.
+     */
+    private static class HirschbergTask extends RecursiveTask<Integer> {
+        private final char[] _seq1;
+        private final int _from1;
+        private final int _to1;
+        private final char[] _seq2;
+        private final int _from2;
+        private final int _to2;
+        private final char[] _result;
+        private final int _resultOffset;
+
+        HirschbergTask(char[] seq1, int from1, int to1, char[] seq2, int from2, int to2, char[] result,
+                int resultOffset) {
+            _seq1 = seq1;
+            _from1 = from1;
+            _to1 = to1;
+            _seq2 = seq2;
+            _from2 = from2;
+            _to2 = to2;
+            _result = result;
+            _resultOffset = resultOffset;
+        }
+
+        @Override
+        protected Integer compute() {
+            int len1 = _to1 - _from1;
+            int len2 = _to2 - _from2;
+            if (len1 == 0 || len2 == 0) {
+                return 0;
+            }
+
+            if ((long) (len1 + 1) * (len2 + 1) <= SMALL_TABLE_CELLS) {
+                return solveWithTable(_seq1, _from1, _to1, _seq2, _from2, _to2, _result, _resultOffset);
+            }
+
+            if (len1 == 1) {
+                // a single character is either somewhere in seq2, or not part of the LCS
+                for (int j = _from2; j < _to2; j++) {
+                    if (_seq2[j] == _seq1[_from1]) {
+                        _result[_resultOffset] = _seq1[_from1];
+                        return 1;
+                    }
+                }
+                return 0;
+            }
+
+            int mid = _from1 + len1 / 2;
+            int[] forward = forwardRow(_seq1, _from1, mid, _seq2, _from2, _to2);
+            int[] backward = backwardRow(_seq1, mid, _to1, _seq2, _from2, _to2);
+
+            // the split column of seq2 where an optimal alignment crosses the middle row
+            int split = 0;
+            int best = -1;
+            for (int k = 0; k <= len2; k++) {
+                int total = forward[k] + backward[k];
+                if (total > best) {
+                    best = total;
+                    split = k;
+                }
+            }
+
+            // the left half of the LCS is forward[split] long, so the right half starts right after it
+            HirschbergTask left = new HirschbergTask(_seq1, _from1, mid, _seq2, _from2, _from2 + split, _result,
+                    _resultOffset);
+            HirschbergTask right = new HirschbergTask(_seq1, mid, _to1, _seq2, _from2 + split, _to2, _result,
+                    _resultOffset + forward[split]);
+
+            if ((long) len1 * len2 >= PARALLEL_THRESHOLD_CELLS) {
+                invokeAll(left, right);
+                return left.join() + right.join();
+            }
+            return left.compute() + right.compute();
+        }
+    }
+
+    /**
+     * @return row[k] = LCS length of seq1[from1, to1) and seq2[from2, from2 + k)
+     */
+    static int[] forwardRow(char[] seq1, int from1, int to1, char[] seq2, int from2, int to2) {
+        int len2 = to2 - from2;
+        int[] row = new int[len2 + 1];
+        for (int i = from1; i < to1; i++) {
+            char c = seq1[i];
+            // the value of row[j - 1] before this row overwrote it, the diagonal
+            int diagonal = 0;
+            for (int j = 1; j <= len2; j++) {
+                int above = row[j];
+                if (c == seq2[from2 + j - 1]) {
+                    row[j] = diagonal + 1;
+                } else if (row[j - 1] > above) {
+                    row[j] = row[j - 1];
+                }
+                diagonal = above;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return row[k] = LCS length of seq1[from1, to1) and seq2[from2 + k, to2)
+     */
+    static int[] backwardRow(char[] seq1, int from1, int to1, char[] seq2, int from2, int to2) {
+        int len2 = to2 - from2;
+        int[] row = new int[len2 + 1];
+        for (int i = to1 - 1; i >= from1; i--) {
+            char c = seq1[i];
+            int diagonal = 0;
+            for (int j = len2 - 1; j >= 0; j--) {
+                int below = row[j];
+                if (c == seq2[from2 + j]) {
+                    row[j] = diagonal + 1;
+                } else if (row[j + 1] > below) {
+                    row[j] = row[j + 1];
+                }
+                diagonal = below;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * The classic full table LCS with a backtrace, for subproblems small enough that the table is cheap.
+     */
+    private static int solveWithTable(char[] seq1, int from1, int to1, char[] seq2, int from2, int to2,
+            char[] result, int resultOffset) {
+        int len1 = to1 - from1;
+        int len2 = to2 - from2;
+        int[][] table = new int[len1 + 1][len2 + 1];
+        for (int i = 1; i <= len1; i++) {
+            for (int j = 1; j <= len2; j++) {
+                if (seq1[from1 + i - 1] == seq2[from2 + j - 1]) {
+                    table[i][j] = table[i - 1][j - 1] + 1;
+                } else {
+                    table[i][j] = Math.max(table[i - 1][j], table[i][j - 1]);
+                }
+            }
+        }
+
+        // walk back from the end, writing the LCS from its last character
+        int i = len1;
+        int j = len2;
+        int k = resultOffset + table[len1][len2];
+        while (i > 0 && j > 0) {
+            if (seq1[from1 + i - 1] == seq2[from2 + j - 1]) {
+                result[--k] = seq1[from1 + i - 1];
+                i--;
+                j--;
+            } else if (table[i - 1][j] >= table[i][j - 1]) {
+                i--;
+            } else {
+                j--;
+            }
+        }
+        return table[len1][len2];
+    }
+}
@@ -0,0 +1,214 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+
+/**
+ * The LCS length of two sequences which grow over time, such as logs or event streams, updated as characters are
+ * appended to either one instead of recomputing the table.
+ *
+ * The state is the last row and the last column of the LCS table, each held as a bit vector the way
+ * {@link BitParallelLcs} holds a column: a 0 bit where the LCS length steps up by one. Appending to the first sequence
+ * adds a row, which advances the row vector over the second sequence by one character, O(second length / 64), and
+ * adds one bit to the column vector, whether the LCS grew. Appending to the second sequence is the same with the roles
+ * swapped.
+ *
+ * A snapshot copies the two bit vectors and shares the character buffers, so it costs O((m + n) / 64). After a restore
+ * the buffers are copied before the next append writes over characters another snapshot may still see. A restore
+ * rebuilds the match masks, O(m + n).
+ */
+public class IncrementalLcs {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Side _first = new Side();
+    private final Side _second = new Side();
+    private int _length;
+
+    /**
+     * The saved state of an {@link IncrementalLcs}, which it can be restored to any number of times.
+     */
+    public static final class Snapshot {
+        private final char[] _firstChars;
+        private final int _firstLength;
+        private final long[] _firstVector;
+        private final char[] _secondChars;
+        private final int _secondLength;
+        private final long[] _secondVector;
+        private final int _length;
+
+        private Snapshot(IncrementalLcs lcs) {
+            _firstChars = lcs._first.chars;
+            _firstLength = lcs._first.length;
+            _firstVector = Arrays.copyOf(lcs._first.vector, lcs._first.words());
+            _secondChars = lcs._second.chars;
+            _secondLength = lcs._second.length;
+            _secondVector = Arrays.copyOf(lcs._second.vector, lcs._second.words());
+            _length = lcs._length;
+        }
+    }
+
+    /**
+     * One of the sequences, with its match masks and the vector of LCS steps along it.
+     */
+    private static class Side {
+        char[] chars = new char[INITIAL_CAPACITY];
+        int length;
+        // bit i is 0 where the LCS of the other sequence with this one steps up at position i
+        long[] vector = new long[INITIAL_CAPACITY / Long.SIZE];
+        // the match mask row of each symbol, -1 for symbols not in the sequence
+        int[] symbolRows = new int[0];
+        long[][] masks = new long[0][];
+        int symbols;
+        // chars is shared with a snapshot which may see past length, copy it before writing
+        boolean shared;
+
+        int words() {
+            return (length + Long.SIZE - 1) / Long.SIZE;
+        }
+
+        int symbolRow(char c) {
+            return c < symbolRows.length ? symbolRows[c] : -1;
+        }
+
+        /**
+         * @return the number of 0 bits in the first length bits of the vector
+         */
+        int zeros() {
+            int words = words();
+            int ones = 0;
+            for (int k = 0; k < words - 1; k++) {
+                ones += Long.bitCount(vector[k]);
+            }
+            if (words > 0) {
+                int bits = length - (words - 1) * Long.SIZE;
+                ones += Long.bitCount(vector[words - 1] & (bits == Long.SIZE ? -1L : (1L << bits) - 1));
+            }
+            return length - ones;
+        }
+
+        void append(char c, boolean stepsUp) {
+            if (length == chars.length || shared) {
+                int capacity = length == chars.length ? chars.length * 2 : chars.length;
+                chars = Arrays.copyOf(chars, capacity);
+                shared = false;
+                growWords(capacity / Long.SIZE);
+            }
+
+            int word = length >>> 6;
+            long bit = 1L << length;
+            vector[word] = stepsUp ? vector[word] & ~bit : vector[word] | bit;
+            // addSymbol may replace masks, so it runs before masks is read
+            int row = addSymbol(c);
+            masks[row][word] |= bit;
+            chars[length++] = c;
+        }
+
+        private int addSymbol(char c) {
+            if (c >= symbolRows.length) {
+                int oldLength = symbolRows.length;
+                symbolRows = Arrays.copyOf(symbolRows, Math.max(c + 1, oldLength * 2));
+                Arrays.fill(symbolRows, oldLength, symbolRows.length, -1);
+            }
+            if (symbolRows[c] < 0) {
+                if (symbols == masks.length) {
+                    masks = Arrays.copyOf(masks, Math.max(4, symbols * 2));
+                }
+                masks[symbols] = new long[vector.length];
+                symbolRows[c] = symbols++;
+            }
+            return symbolRows[c];
+        }
+
+        private void growWords(int words) {
+            if (vector.length < words) {
+                vector = Arrays.copyOf(vector, words);
+                for (int s = 0; s < symbols; s++) {
+                    masks[s] = Arrays.copyOf(masks[s], words);
+                }
+            }
+        }
+
+        void restore(char[] savedChars, int savedLength, long[] savedVector) {
+            chars = savedChars;
+            length = savedLength;
+            shared = true;
+            vector = Arrays.copyOf(savedVector, chars.length / Long.SIZE);
+
+            Arrays.fill(symbolRows, -1);
+            symbols = 0;
+            masks = new long[0][];
+            for (int i = 0; i < length; i++) {
+                int row = addSymbol(chars[i]);
+                masks[row][i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Appends a character to the first sequence, O(second length / 64).
+     */
+    public void appendFirst(char c) {
+        append(_first, _second, c);
+    }
+
+    /**
+     * Appends a character to the second sequence, O(first length / 64).
+     */
+    public void appendSecond(char c) {
+        append(_second, _first, c);
+    }
+
+    public void appendFirst(char[] chars) {
+        for (char c : chars) {
+            append(_first, _second, c);
+        }
+    }
+
+    public void appendSecond(char[] chars) {
+        for (char c : chars) {
+            append(_second, _first, c);
+        }
+    }
+
+    /**
+     * @return the LCS length of the two sequences so far
+     */
+    public int length() {
+        return _length;
+    }
+
+    public int firstLength() {
+        return _first.length;
+    }
+
+    public int secondLength() {
+        return _second.length;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Returns to the state of the snapshot, which may have been taken before or after the current state.
+     */
+    public void restore(Snapshot snapshot) {
+        _first.restore(snapshot._firstChars, snapshot._firstLength, snapshot._firstVector);
+        _second.restore(snapshot._secondChars, snapshot._secondLength, snapshot._secondVector);
+        _length = snapshot._length;
+    }
+
+    /**
+     * Adding c to side is a new row of the table across other. The row vector along other advances over c, and its
+     * zeros are the new LCS length, and whether it grew is the new bit of the vector along side.
+     */
+    private void append(Side side, Side other, char c) {
+        int row = other.symbolRow(c);
+        int length = _length;
+        if (row >= 0) {
+            BitParallelLcs.advance(other.vector, other.masks[row], other.words());
+            length = other.zeros();
+        }
+        side.append(c, length > _length);
+        _length = length;
+    }
+}
@@ -1,12 +1,33 @@
 package com.learning.java.algorithmdemo;
 
+import com.learning.java.utils.DataGeneration;
+import com.learning.java.utils.LongMemoTable;
 import com.learning.java.utils.SpaceTimeComplexity;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * This class demonstrates the LCS algorithm using 3 different solutions, brute force, memoized, and tabulated (dynamic)
  */
 public class LongestCommonSubsequence implements AlgorithmDemo {
 
+    // length of the random sequences for the large input runs
+    private static final int LARGE_SEQUENCE_LENGTH = 20_000;
+    // the bound for the banded edit distance runs
+    private static final int EDIT_DISTANCE_K = 100;
+    // size of the generated files for the diff run
+    private static final int DIFF_FILE_LINES = 1_000_000;
+    private static final int DIFF_FILE_EDITS = 60;
+    // size of the batch run
+    private static final int BATCH_QUERY_LENGTH = 500;
+    private static final int BATCH_CANDIDATES = 200_000;
+
     private final SpaceTimeComplexity _spaceTimeComplexity = new SpaceTimeComplexity();
 
     /**
@@ -76,6 +97,43 @@ public class LongestCommonSubsequence implements AlgorithmDemo {
         return lcs;
     }
 
+    /**
+     * Calculates the LCS using memoization, with a primitive keyed {@link LongMemoTable} in place of the dense
+     * (idx1 + 1) * (idx2 + 1) cache. Only the visited (idx1, idx2) pairs take up space, both branches are cached, and
+     * a bounded table can cap the memory used for very long sequences.
+     * @param seq1 the first sequence
+     * @param seq2 the second sequence
+     * @param idx1 the index on the first sequence
+     * @param idx2 the index on the second sequence
+     * @param cache the memoization cache, keyed by the packed (idx1, idx2) pair
+     * @return the longest common subsequence.
+     */
+    private int lcsMemoized(char[] seq1, char[] seq2, int idx1, int idx2, LongMemoTable cache) {
+        _spaceTimeComplexity.call();
+        _spaceTimeComplexity.push();
+        if (idx1 == 0 || idx2 == 0) {
+            _spaceTimeComplexity.pop();
+            return 0;
+        }
+
+        long key = LongMemoTable.pack(idx1, idx2);
+        long cached = cache.get(key);
+        if (cached != LongMemoTable.MISSING) {
+            _spaceTimeComplexity.pop();
+            return (int) cached;
+        }
+
+        int lcs;
+        if (seq1[idx1 - 1] == seq2[idx2 - 1]) {
+            lcs = 1 + lcsMemoized(seq1, seq2, idx1 - 1, idx2 - 1, cache);
+        } else {
+            lcs = Math.max(lcsMemoized(seq1, seq2, idx1 - 1, idx2, cache), lcsMemoized(seq1, seq2, idx1, idx2 - 1, cache));
+        }
+        cache.put(key, lcs);
+        _spaceTimeComplexity.pop();
+        return lcs;
+    }
+
     /**
      * Calculates the LCS using dynamic programming technique
      * @param seq1 the first sequence
@@ -173,6 +231,15 @@ public class LongestCommonSubsequence implements AlgorithmDemo {
         _spaceTimeComplexity.reset();
 
 
+        System.out.println("----------------- Memoized (primitive table) LCS run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int lcsT = lcsMemoized(seq1, seq2, seq1.length, seq2.length, new LongMemoTable());
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LcsT: %d, ", lcsT);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
         System.out.println("----------------- Dynamic LCS run --------------------");
         _spaceTimeComplexity.timeStart();
         int lcsD = lcsDynamic(seq1, seq2, seq1.length, seq2.length);
@@ -190,6 +257,290 @@ public class LongestCommonSubsequence implements AlgorithmDemo {
         _spaceTimeComplexity.addAnswer();
         _spaceTimeComplexity.printStats();
         _spaceTimeComplexity.reset();
+
+        System.out.println("----------------- Bit-parallel LCS run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int lcsB = BitParallelLcs.length(seq1, seq2);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LcsB: %d, ", lcsB);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        runLarge(DataGeneration.randomSequence(LARGE_SEQUENCE_LENGTH, 4),
+                DataGeneration.randomSequence(LARGE_SEQUENCE_LENGTH, 4));
+
+        runIncremental(DataGeneration.randomSequence(LARGE_SEQUENCE_LENGTH, 4),
+                DataGeneration.randomSequence(LARGE_SEQUENCE_LENGTH, 4));
+
+        runEditDistance(DataGeneration.randomSequence(LARGE_SEQUENCE_LENGTH, 4), EDIT_DISTANCE_K);
+
+        runFileDiff(DIFF_FILE_LINES, DIFF_FILE_EDITS);
+
+        runBatch(DataGeneration.randomSequence(BATCH_QUERY_LENGTH, 4), BATCH_CANDIDATES);
+    }
+
+    /**
+     * Compares one query against a batch of random candidates, one call per candidate and then as a batch.
+     */
+    private void runBatch(char[] query, int candidateCount) {
+        System.out.printf("----------------- Batch LCS, query length %d, %d candidates --------------------%n",
+                query.length, candidateCount);
+        char[][] candidates = new char[candidateCount][];
+        for (int i = 0; i < candidateCount; i++) {
+            candidates[i] = DataGeneration.randomSequence(query.length / 2 + (int) (Math.random() * query.length), 4);
+        }
+
+        System.out.println("----------------- One call per candidate run --------------------");
+        int[] single = new int[candidateCount];
+        _spaceTimeComplexity.timeStart();
+        for (int i = 0; i < candidateCount; i++) {
+            single[i] = BitParallelLcs.length(query, candidates[i]);
+        }
+        _spaceTimeComplexity.timeStop();
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(candidateCount);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        BatchLcs batch = new BatchLcs(query);
+        System.out.println("----------------- Batch lengths run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int[] lengths = batch.lengths(candidates);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("matches: %b, ", Arrays.equals(single, lengths));
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(candidateCount);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("----------------- Batch top 5 run --------------------");
+        _spaceTimeComplexity.timeStart();
+        List<BatchLcs.Match> top = batch.topK(candidates, 5, 0);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Top: %s, ", top);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(candidateCount);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+    }
+
+    /**
+     * Streams both sequences into an incremental LCS one character at a time, alternating between them, with a
+     * snapshot half way which is restored at the end.
+     */
+    private void runIncremental(char[] seq1, char[] seq2) {
+        System.out.println("----------------- Incremental LCS run --------------------");
+        IncrementalLcs incremental = new IncrementalLcs();
+        IncrementalLcs.Snapshot halfway = null;
+        int halfwayLength = 0;
+
+        _spaceTimeComplexity.timeStart();
+        for (int i = 0; i < Math.max(seq1.length, seq2.length); i++) {
+            if (i == seq1.length / 2) {
+                halfway = incremental.snapshot();
+                halfwayLength = incremental.length();
+            }
+            if (i < seq1.length) {
+                incremental.appendFirst(seq1[i]);
+            }
+            if (i < seq2.length) {
+                incremental.appendSecond(seq2[i]);
+            }
+        }
+        _spaceTimeComplexity.timeStop();
+        int lcsB = BitParallelLcs.length(seq1, seq2);
+        System.out.printf("Appends: %d, LcsInc: %d, matches: %b, ", seq1.length + seq2.length, incremental.length(),
+                incremental.length() == lcsB);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(seq1.length + seq2.length);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        incremental.restore(halfway);
+        System.out.printf("Restored half way snapshot, lengths %d and %d, LcsInc: %d, matches: %b%n",
+                incremental.firstLength(), incremental.secondLength(), incremental.length(),
+                incremental.length() == halfwayLength);
+    }
+
+    /**
+     * Runs the edit distances on the sequence against a copy with a few random edits, and against an unrelated
+     * sequence, which the banded distance should give up on quickly.
+     */
+    private void runEditDistance(char[] seq, int k) {
+        char[] near = seq.clone();
+        for (int e = 0; e < k / 2; e++) {
+            near[(int) (Math.random() * near.length)] = 'z';
+        }
+        char[] far = DataGeneration.randomSequence(seq.length, 4);
+        EditDistance editDistance = new EditDistance();
+
+        System.out.println("----------------- Levenshtein bit-parallel run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int levenshtein = editDistance.levenshtein(seq, near);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Distance: %d, ", levenshtein);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.printf("----------------- Levenshtein banded, k = %d run --------------------%n", k);
+        _spaceTimeComplexity.timeStart();
+        int banded = editDistance.levenshtein(seq, near, k);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Distance: %d, matches: %b, ", banded, banded == levenshtein);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.printf("----------------- Levenshtein banded, k = %d, unrelated run --------------------%n", k);
+        _spaceTimeComplexity.timeStart();
+        int bandedFar = editDistance.levenshtein(seq, far, k);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("Distance: %d (-1 is over k), ", bandedFar);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("----------------- Weighted (1, 1, 2), unrelated run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int weighted = editDistance.weighted(seq, far, 1, 1, 2);
+        _spaceTimeComplexity.timeStop();
+        int lcs = BitParallelLcs.length(seq, far);
+        System.out.printf("Distance: %d, m + n - 2 * LCS: %d, ", weighted, seq.length + far.length - 2 * lcs);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+    }
+
+    /**
+     * Diffs two generated files of the given number of lines, the second a copy of the first with some lines changed,
+     * inserted, or deleted, printing the first few hunks.
+     */
+    private void runFileDiff(int lines, int edits) {
+        System.out.printf("----------------- Myers diff of files, %d lines, %d edits --------------------%n", lines,
+                edits);
+        try {
+            Path oldFile = Files.createTempFile("lcs-old", ".txt");
+            Path newFile = Files.createTempFile("lcs-new", ".txt");
+            try {
+                List<String> oldLines = new ArrayList<>(lines);
+                for (int i = 0; i < lines; i++) {
+                    oldLines.add("line " + i + " " + (i * 31 % 97));
+                }
+                List<String> newLines = new ArrayList<>(oldLines);
+                for (int e = 0; e < edits; e++) {
+                    int at = (int) (Math.random() * newLines.size());
+                    switch (e % 3) {
+                        case 0:
+                            newLines.set(at, "changed " + e);
+                            break;
+                        case 1:
+                            newLines.add(at, "inserted " + e);
+                            break;
+                        default:
+                            newLines.remove(at);
+                            break;
+                    }
+                }
+                Files.write(oldFile, oldLines);
+                Files.write(newFile, newLines);
+
+                MyersDiff.Lines mappedOld = MyersDiff.Lines.map(oldFile);
+                MyersDiff.Lines mappedNew = MyersDiff.Lines.map(newFile);
+                int[] hunks = new int[1];
+                _spaceTimeComplexity.timeStart();
+                int editCount = MyersDiff.diffLines(mappedOld, mappedNew, (oldFrom, oldTo, newFrom, newTo) -> {
+                    if (hunks[0]++ < 3) {
+                        System.out.printf("@@ -%d,%d +%d,%d @@%n", oldFrom + 1, oldTo - oldFrom, newFrom + 1,
+                                newTo - newFrom);
+                        for (int i = oldFrom; i < oldTo; i++) {
+                            System.out.println("-" + mappedOld.line(i));
+                        }
+                        for (int i = newFrom; i < newTo; i++) {
+                            System.out.println("+" + mappedNew.line(i));
+                        }
+                    }
+                });
+                _spaceTimeComplexity.timeStop();
+                System.out.printf("Hunks: %d, lines deleted + inserted: %d, ", hunks[0], editCount);
+                _spaceTimeComplexity.addAnswer();
+                _spaceTimeComplexity.printStats();
+                _spaceTimeComplexity.reset();
+
+                int[] byteHunks = new int[1];
+                _spaceTimeComplexity.timeStart();
+                int byteEdits = MyersDiff.diffBytes(oldFile, newFile,
+                        (oldFrom, oldTo, newFrom, newTo) -> byteHunks[0]++);
+                _spaceTimeComplexity.timeStop();
+                System.out.printf("Byte hunks: %d, bytes deleted + inserted: %d, ", byteHunks[0], byteEdits);
+                _spaceTimeComplexity.addAnswer();
+                _spaceTimeComplexity.printStats();
+                _spaceTimeComplexity.reset();
+            } finally {
+                Files.deleteIfExists(oldFile);
+                Files.deleteIfExists(newFile);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Runs the algorithms which scale to long sequences. The recursive and memoized solutions are left out, and the
+     * full table of lcsDynamic would need (n + 1)^2 ints.
+     */
+    private void runLarge(char[] seq1, char[] seq2) {
+        System.out.printf("----------------- Large inputs, lengths %d and %d --------------------%n", seq1.length,
+                seq2.length);
+
+        System.out.println("----------------- Dynamic Improved LCS run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int lcsDI = lcsDynamicImproved(seq1, seq2, seq1.length, seq2.length);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LcsI: %d, ", lcsDI);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("----------------- Bit-parallel LCS run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int lcsB = BitParallelLcs.length(seq1, seq2);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LcsB: %d, matches: %b, ", lcsB, lcsB == lcsDI);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("----------------- Wavefront (tiled, parallel) LCS run --------------------");
+        _spaceTimeComplexity.timeStart();
+        int lcsW = WavefrontLcs.length(seq1, seq2);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LcsW: %d, matches: %b, ", lcsW, lcsW == lcsDI);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("----------------- Hirschberg LCS run (reconstructed) --------------------");
+        _spaceTimeComplexity.timeStart();
+        char[] lcsH = HirschbergLcs.lcs(seq1, seq2);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LcsH: %d, common subsequence: %b, ", lcsH.length,
+                isSubsequence(lcsH, seq1) && isSubsequence(lcsH, seq2));
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(lcsH.length);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+    }
+
+    private static boolean isSubsequence(char[] subsequence, char[] sequence) {
+        int k = 0;
+        for (int i = 0; i < sequence.length && k < subsequence.length; i++) {
+            if (sequence[i] == subsequence[k]) {
+                k++;
+            }
+        }
+        return k == subsequence.length;
     }
 
     /*
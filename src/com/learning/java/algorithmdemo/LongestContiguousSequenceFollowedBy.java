@@ -1,12 +1,24 @@
 package com.learning.java.algorithmdemo;
 
 import com.learning.java.utils.SpaceTimeComplexity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
 
 /**
  * Given a stream (array) of integer, find the longest sequence of integer x, which is followed by integer y
  * if x = 1, and y = 2; then the array { 1,1,1,2,1,1,1,1,2,1,1,1,1,1,2 } should produce { startIdx: 9, endIdx:}
  */
 public class LongestContiguousSequenceFollowedBy implements AlgorithmDemo {
+    // the size of the large array, and of the file, scanned in chunks
+    private static final int LARGE_SIZE = 20_000_000;
+    private static final int FILE_SIZE = 1 << 26;
+    // one element in this many is not x, so runs are long enough to cross chunks
+    private static final int RUN_BREAK_ODDS = 50;
+
     private final SpaceTimeComplexity _spaceTimeComplexity = new SpaceTimeComplexity();
 
     static class MaxContiguousSequenceOf {
@@ -77,5 +89,83 @@ public class LongestContiguousSequenceFollowedBy implements AlgorithmDemo {
         _spaceTimeComplexity.addAnswer();
         _spaceTimeComplexity.printStats();
         _spaceTimeComplexity.reset();
+
+        runLarge(LARGE_SIZE);
+        runFile(FILE_SIZE);
+    }
+
+    /**
+     * Scans a large random array with {@link RunSummary}, in parallel chunks and then as a single chunk.
+     */
+    private void runLarge(int size) {
+        int[] large = new int[size];
+        Random random = new Random();
+        for (int i = 0; i < size; i++) {
+            large[i] = random.nextInt(RUN_BREAK_ODDS) == 0 ? random.nextInt(3) : 1;
+        }
+
+        System.out.println("------------ LCSF Parallel " + size + " ----------------");
+        _spaceTimeComplexity.timeStart();
+        RunSummary summary = RunSummary.scan(large, 1, 2);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LCSF: %d at %d%n", summary.longest(), summary.start());
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(size);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("------------ LCSF Single Chunk " + size + " ----------------");
+        _spaceTimeComplexity.timeStart();
+        summary = RunSummary.scan(large, 0, size, 1, 2);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("LCSF: %d at %d%n", summary.longest(), summary.start());
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(size);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+    }
+
+    /**
+     * Writes random bytes to a temporary file and scans it mapped in parallel chunks, and again as a stream.
+     */
+    private void runFile(int size) {
+        byte[] bytes = new byte[size];
+        Random random = new Random();
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (random.nextInt(RUN_BREAK_ODDS) == 0 ? random.nextInt(3) : 1);
+        }
+
+        try {
+            Path file = Files.createTempFile("lcsf", ".bin");
+            try {
+                Files.write(file, bytes);
+
+                System.out.println("------------ LCSF Mapped File " + size + " bytes ----------------");
+                _spaceTimeComplexity.timeStart();
+                RunSummary summary = RunSummary.scan(file, (byte) 1, (byte) 2);
+                _spaceTimeComplexity.timeStop();
+                System.out.printf("LCSF: %d at %d%n", summary.longest(), summary.start());
+                _spaceTimeComplexity.addAnswer();
+                _spaceTimeComplexity.setTotalSize(size);
+                _spaceTimeComplexity.printStats();
+                _spaceTimeComplexity.reset();
+
+                System.out.println("------------ LCSF Stream " + size + " bytes ----------------");
+                _spaceTimeComplexity.timeStart();
+                try (InputStream in = Files.newInputStream(file)) {
+                    summary = RunSummary.scan(in, (byte) 1, (byte) 2);
+                }
+                _spaceTimeComplexity.timeStop();
+                System.out.printf("LCSF: %d at %d%n", summary.longest(), summary.start());
+                _spaceTimeComplexity.addAnswer();
+                _spaceTimeComplexity.setTotalSize(size);
+                _spaceTimeComplexity.printStats();
+                _spaceTimeComplexity.reset();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.learning.java.algorithmdemo;
 
+import com.learning.java.utils.DataGeneration;
 import com.learning.java.utils.SpaceTimeComplexity;
 
 import java.util.Arrays;
@@ -8,6 +9,11 @@ import java.util.Arrays;
  * This algorithm demonstrates the LIS problem in both brute force and iterative (dynamic) approaches.
  */
 public class LongestIncreasingSubsequence implements AlgorithmDemo {
+    // the number of elements for the large input runs
+    private static final int LARGE_SIZE = 10_000_000;
+    // the prime the number of LISs is counted modulo
+    private static final long COUNT_MODULUS = 1_000_000_007L;
+
     private final SpaceTimeComplexity _spaceTimeComplexity = new SpaceTimeComplexity();
 
     static class MaxSequence {
@@ -114,5 +120,66 @@ public class LongestIncreasingSubsequence implements AlgorithmDemo {
         _spaceTimeComplexity.addAnswer();
         _spaceTimeComplexity.printStats();
         _spaceTimeComplexity.reset();
+
+        System.out.println("------------ LIS Patience Sorting ----------------");
+        _spaceTimeComplexity.timeStart();
+        int[] lisP = PatienceLis.lis(arr, true);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("lis: %d %s", lisP.length, Arrays.toString(lisP));
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("------------ LIS Patience Sorting, non strict ----------------");
+        _spaceTimeComplexity.timeStart();
+        int[] lisNonStrict = PatienceLis.lis(arr, false);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("lis: %d %s", lisNonStrict.length, Arrays.toString(lisNonStrict));
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        int[] large = DataGeneration.randomArray(LARGE_SIZE, Integer.MAX_VALUE - 1);
+        System.out.printf("------------ LIS Patience Sorting, online, %d elements ----------------%n", large.length);
+        PatienceLis online = new PatienceLis(true);
+        _spaceTimeComplexity.timeStart();
+        for (int value : large) {
+            online.add(value);
+            if (online.count() % (LARGE_SIZE / 4) == 0) {
+                System.out.printf("after %d elements lis: %d%n", online.count(), online.length());
+            }
+        }
+        int[] lisLarge = online.subsequence();
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("lis: %d", lisLarge.length);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(large.length);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.printf("------------ LIS Weighted (Fenwick), %d elements ----------------%n", large.length);
+        long[] weights = new long[large.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = large[i] % 1000;
+        }
+        _spaceTimeComplexity.timeStart();
+        long maxWeight = WeightedLis.maxWeight(large, weights);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("max weight: %d", maxWeight);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(large.length);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.printf("------------ LIS Counting (Fenwick), %d elements ----------------%n", large.length);
+        _spaceTimeComplexity.timeStart();
+        WeightedLis.LongestCount count = WeightedLis.countLongest(large, COUNT_MODULUS);
+        _spaceTimeComplexity.timeStop();
+        System.out.printf("lis: %d, matches: %b, count mod %d: %d", count.length, count.length == lisLarge.length,
+                COUNT_MODULUS, count.count);
+        _spaceTimeComplexity.addAnswer();
+        _spaceTimeComplexity.setTotalSize(large.length);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
     }
 }
@@ -0,0 +1,276 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits a set of large values, such as 64 bit amounts, into two parts with sums as close as possible, for inputs too
+ * large valued for any table indexed by sum and too long for the O(2^n) recursion of
+ * {@link FindEqualPartitions#isSubsetSumMatch(int[], int, int)}.
+ *
+ * Meet in the middle: the values are split into two halves, and every subset sum of each half is listed in sorted
+ * order, 2^(n/2) sums each. A subset of the whole is a subset of each half, so the part closest to half the total is
+ * the pair of sums, one from each list, closest to it, found by walking one list up and the other down together.
+ *
+ * Each half's sums are built sorted by the merge step of merge sort: the sums with the next value are the sums without
+ * it shifted up by the value, so merging the two sorted lists doubles the sorted list. The halves are built in
+ * parallel, and large merges are split across the pool. Each sum keeps the bit mask of its subset so the partition
+ * can be rebuilt. While a half is built it takes two buffers of 12 bytes per sum, about 1.6GB in all for n = 50.
+ */
+public class MeetInTheMiddlePartition {
+  // the most values, about 1.6GB of sums and masks while the halves are built
+  public static final int MAX_VALUES = 50;
+  // bytes per subset sum, its long sum and int mask
+  private static final int BYTES_PER_SUM = Long.BYTES + Integer.BYTES;
+  // merges of fewer sums are not split
+  private static final int MERGE_THRESHOLD = 1 << 15;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * Two parts of the values, as indexes into the values, and the difference of their sums.
+   */
+  public static class Partition {
+    public final int[] first;
+    public final int[] second;
+    public final long difference;
+
+    Partition(int[] first, int[] second, long difference) {
+      this.first = first;
+      this.second = second;
+      this.difference = difference;
+    }
+  }
+
+  /**
+   * The sorted subset sums of some values, with the bit mask of the values in each subset.
+   */
+  private static class HalfSums {
+    long[] sums;
+    int[] masks;
+  }
+
+  /**
+   * @param values the values, none negative, with a sum that fits in a long
+   * @return a partition of the values into two parts whose sums differ as little as possible
+   */
+  public static Partition closestPartition(long[] values) {
+    if (values.length > MAX_VALUES) {
+      throw new IllegalArgumentException("At most " + MAX_VALUES + " values, got " + values.length);
+    }
+    int half = values.length / 2;
+    // both halves are built at once, each into two buffers
+    long required = 2L * BYTES_PER_SUM * ((1L << half) + (1L << (values.length - half)));
+    long available = Runtime.getRuntime().maxMemory();
+    if (required > available) {
+      throw new IllegalArgumentException("Partitioning " + values.length + " values needs about "
+          + (required >> 20) + "MB of heap, at most " + (available >> 20) + "MB is available");
+    }
+    long total = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] < 0) {
+        throw new IllegalArgumentException("Values must not be negative: " + values[i] + " at " + i);
+      }
+      total = Math.addExact(total, values[i]);
+    }
+
+    HalfSums low = new HalfSums();
+    HalfSums high = new HalfSums();
+    POOL.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(new EnumerateTask(values, 0, half, low), new EnumerateTask(values, half, values.length, high));
+      }
+    });
+
+    // low sums upward, high sums downward, towards a total of half
+    long bestDifference = Long.MAX_VALUE;
+    int bestLow = 0;
+    int bestHigh = 0;
+    int i = 0;
+    int j = high.sums.length - 1;
+    while (i < low.sums.length && j >= 0) {
+      long part = low.sums[i] + high.sums[j];
+      // the other part is total - part, neither can overflow
+      long difference = (total - part) - part;
+      if (Math.abs(difference) < bestDifference) {
+        bestDifference = Math.abs(difference);
+        bestLow = i;
+        bestHigh = j;
+        if (difference == 0) {
+          break;
+        }
+      }
+      if (difference > 0) {
+        i++;
+      } else {
+        j--;
+      }
+    }
+
+    long mask = (low.masks[bestLow] & 0xFFFF_FFFFL) | ((high.masks[bestHigh] & 0xFFFF_FFFFL) << half);
+    int firstCount = Long.bitCount(mask);
+    int[] first = new int[firstCount];
+    int[] second = new int[values.length - firstCount];
+    for (int v = 0, f = 0, s = 0; v < values.length; v++) {
+      if ((mask >>> v & 1) == 1) {
+        first[f++] = v;
+      } else {
+        second[s++] = v;
+      }
+    }
+    return new Partition(first, second, bestDifference);
+  }
+
+  /**
+   * @return true if the values split into two parts with equal sums
+   */
+  public static boolean canPartition(long[] values) {
+    return closestPartition(values).difference == 0;
+  }
+
+  /**
+   * Lists the subset sums of values[from, to) in sorted order, doubling the sorted list once per value.
+   */
+  private static class EnumerateTask extends RecursiveAction {
+    private final long[] _values;
+    private final int _from;
+    private final int _to;
+    private final HalfSums _result;
+
+    EnumerateTask(long[] values, int from, int to, HalfSums result) {
+      _values = values;
+      _from = from;
+      _to = to;
+      _result = result;
+    }
+
+    @Override
+    protected void compute() {
+      int size = 1 << (_to - _from);
+      long[] sums = new long[size];
+      int[] masks = new int[size];
+      long[] nextSums = new long[size];
+      int[] nextMasks = new int[size];
+
+      int count = 1;
+      for (int v = _from; v < _to; v++) {
+        long value = _values[v];
+        int bit = 1 << (v - _from);
+        // the sorted sums without the value merged with the same sums plus the value
+        new MergeTask(sums, masks, value, bit, 0, count, 0, count, nextSums, nextMasks, 0).invoke();
+        count *= 2;
+
+        long[] swapSums = sums;
+        sums = nextSums;
+        nextSums = swapSums;
+        int[] swapMasks = masks;
+        masks = nextMasks;
+        nextMasks = swapMasks;
+      }
+      _result.sums = sums;
+      _result.masks = masks;
+    }
+  }
+
+  /**
+   * Merges a = sums[aFrom, aTo) with b = sums[bFrom, bTo) + value into the output from outFrom. Large merges split
+   * the larger range at its middle, find where that value falls in the other range, and merge the two sides in
+   * parallel.
+   */
+  private static class MergeTask extends RecursiveAction {
+    private final long[] _sums;
+    private final int[] _masks;
+    private final long _value;
+    private final int _bit;
+    private final int _aFrom;
+    private final int _aTo;
+    private final int _bFrom;
+    private final int _bTo;
+    private final long[] _outSums;
+    private final int[] _outMasks;
+    private final int _outFrom;
+
+    MergeTask(long[] sums, int[] masks, long value, int bit, int aFrom, int aTo, int bFrom, int bTo, long[] outSums,
+        int[] outMasks, int outFrom) {
+      _sums = sums;
+      _masks = masks;
+      _value = value;
+      _bit = bit;
+      _aFrom = aFrom;
+      _aTo = aTo;
+      _bFrom = bFrom;
+      _bTo = bTo;
+      _outSums = outSums;
+      _outMasks = outMasks;
+      _outFrom = outFrom;
+    }
+
+    @Override
+    protected void compute() {
+      int aLength = _aTo - _aFrom;
+      int bLength = _bTo - _bFrom;
+      if (aLength + bLength <= MERGE_THRESHOLD) {
+        merge();
+        return;
+      }
+
+      int aSplit;
+      int bSplit;
+      if (aLength >= bLength) {
+        aSplit = _aFrom + aLength / 2;
+        // the b values below a's middle go left
+        bSplit = lowerBound(_bFrom, _bTo, _sums[aSplit] - _value);
+      } else {
+        bSplit = _bFrom + bLength / 2;
+        aSplit = lowerBound(_aFrom, _aTo, _sums[bSplit] + _value);
+      }
+      int outSplit = _outFrom + (aSplit - _aFrom) + (bSplit - _bFrom);
+      invokeAll(
+          new MergeTask(_sums, _masks, _value, _bit, _aFrom, aSplit, _bFrom, bSplit, _outSums, _outMasks, _outFrom),
+          new MergeTask(_sums, _masks, _value, _bit, aSplit, _aTo, bSplit, _bTo, _outSums, _outMasks, outSplit));
+    }
+
+    /**
+     * @return the first index in [from, to) whose sum is at least key
+     */
+    private int lowerBound(int from, int to, long key) {
+      int low = from;
+      int high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (_sums[mid] < key) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    private void merge() {
+      int i = _aFrom;
+      int j = _bFrom;
+      int k = _outFrom;
+      while (i < _aTo && j < _bTo) {
+        long a = _sums[i];
+        long b = _sums[j] + _value;
+        if (a <= b) {
+          _outSums[k] = a;
+          _outMasks[k++] = _masks[i++];
+        } else {
+          _outSums[k] = b;
+          _outMasks[k++] = _masks[j++] | _bit;
+        }
+      }
+      while (i < _aTo) {
+        _outSums[k] = _sums[i];
+        _outMasks[k++] = _masks[i++];
+      }
+      while (j < _bTo) {
+        _outSums[k] = _sums[j] + _value;
+        _outMasks[k++] = _masks[j++] | _bit;
+      }
+    }
+  }
+}
@@ -0,0 +1,275 @@
+package com.learning.java.algorithmdemo;
+
+import com.learning.java.utils.LongMemoTable;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates F(n) mod m for astronomically large n, without ever building F(n) itself.
+ *
+ * The Fibonacci sequence mod m repeats with a period called the Pisano period, so F(n) mod m = F(n mod period) mod m.
+ * The period of each modulus is computed once and cached, so repeated queries first reduce n (which may be a
+ * {@link BigInteger} with thousands of digits) to below 6m, and then run fast doubling mod m, which takes O(log n)
+ * multiplications.
+ *
+ * The Pisano period of m is the lcm of the periods of its prime power factors. For a prime p the period divides p - 1
+ * when p = +-1 mod 5, and 2(p + 1) when p = +-2 mod 5 (with 3 for 2 and 20 for 5), and the period of p^k is the
+ * period of p times a power of p. Each candidate is checked, so the period found is always the smallest one.
+ */
+public class ModularFibonacci {
+    // moduli up to this size are factored to find their Pisano period, larger ones skip the reduction
+    public static final long MAX_PISANO_MODULUS = 1_000_000_000_000L;
+    // (m - 1)^2 fits in a long for any modulus up to this size
+    private static final long MAX_DIRECT_MODULUS = 3_037_000_499L;
+    // batch queries are split into tasks of at most this many queries
+    private static final int BATCH_THRESHOLD = 4_096;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final LongMemoTable _pisanoPeriods = new LongMemoTable();
+
+    /**
+     * @param n the Fibonacci number, any non negative long
+     * @param m the modulus
+     * @return F(n) mod m
+     */
+    public long fibonacci(long n, long m) {
+        checkArguments(n < 0, m);
+        if (m == 1) {
+            return 0;
+        }
+        long period = pisanoPeriod(m);
+        return fastDoubling(period > 0 ? n % period : n, m);
+    }
+
+    /**
+     * @param n the Fibonacci number, any non negative integer
+     * @param m the modulus
+     * @return F(n) mod m
+     */
+    public long fibonacci(BigInteger n, long m) {
+        checkArguments(n.signum() < 0, m);
+        if (m == 1) {
+            return 0;
+        }
+        long period = pisanoPeriod(m);
+        if (period > 0) {
+            return fastDoubling(n.mod(BigInteger.valueOf(period)).longValueExact(), m);
+        }
+        if (n.bitLength() < Long.SIZE) {
+            return fastDoubling(n.longValue(), m);
+        }
+
+        // no period to reduce by, double over every bit of n
+        long fk = 0;
+        long fk1 = 1;
+        for (int bit = n.bitLength() - 1; bit >= 0; bit--) {
+            long f2k = mulMod(fk, subMod(addMod(fk1, fk1, m), fk, m), m);
+            long f2k1 = addMod(mulMod(fk, fk, m), mulMod(fk1, fk1, m), m);
+            if (n.testBit(bit)) {
+                fk = f2k1;
+                fk1 = addMod(f2k, f2k1, m);
+            } else {
+                fk = f2k;
+                fk1 = f2k1;
+            }
+        }
+        return fk;
+    }
+
+    /**
+     * Answers a batch of (n, m) queries, split across all cores. Queries sharing a modulus share its cached period.
+     *
+     * @param n the Fibonacci numbers
+     * @param m the modulus of each query
+     * @return F(n[i]) mod m[i] for every i
+     */
+    public long[] fibonacci(long[] n, long[] m) {
+        if (n.length != m.length) {
+            throw new IllegalArgumentException("Expected one modulus per query, queries: " + n.length + ", moduli: "
+                    + m.length);
+        }
+        long[] results = new long[n.length];
+        POOL.invoke(new BatchTask(n, m, results, 0, n.length));
+        return results;
+    }
+
+    /**
+     * Answers each query in a contiguous range of the batch, splitting the range in half until it is small.
+     */
+    private class BatchTask extends RecursiveAction {
+        private final long[] _n;
+        private final long[] _m;
+        private final long[] _results;
+        private final int _from;
+        private final int _to;
+
+        BatchTask(long[] n, long[] m, long[] results, int from, int to) {
+            _n = n;
+            _m = m;
+            _results = results;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from <= BATCH_THRESHOLD) {
+                for (int i = _from; i < _to; i++) {
+                    _results[i] = fibonacci(_n[i], _m[i]);
+                }
+            } else {
+                int mid = _from + (_to - _from) / 2;
+                invokeAll(new BatchTask(_n, _m, _results, _from, mid), new BatchTask(_n, _m, _results, mid, _to));
+            }
+        }
+    }
+
+    /**
+     * @param m the modulus
+     * @return the Pisano period of m, or 0 if m is too large to factor
+     */
+    public long pisanoPeriod(long m) {
+        if (m < 1) {
+            throw new IllegalArgumentException("Modulus must be positive: " + m);
+        }
+        if (m > MAX_PISANO_MODULUS) {
+            return 0;
+        }
+        if (m == 1) {
+            return 1;
+        }
+
+        long cached = _pisanoPeriods.get(m);
+        if (cached != LongMemoTable.MISSING) {
+            return cached;
+        }
+
+        long period = 1;
+        long remaining = m;
+        for (long p = 2; p * p <= remaining; p++) {
+            if (remaining % p == 0) {
+                long primePower = 1;
+                while (remaining % p == 0) {
+                    remaining /= p;
+                    primePower *= p;
+                }
+                period = lcm(period, primePowerPeriod(p, primePower));
+            }
+        }
+        if (remaining > 1) {
+            period = lcm(period, primePowerPeriod(remaining, remaining));
+        }
+
+        _pisanoPeriods.put(m, period);
+        return period;
+    }
+
+    private long primePowerPeriod(long p, long primePower) {
+        long period;
+        if (p == 2) {
+            period = 3;
+        } else if (p == 5) {
+            period = 20;
+        } else {
+            long residue = p % 5;
+            // a multiple of the period of p, shrink it by each of its prime factors while it stays a period
+            period = (residue == 1 || residue == 4) ? p - 1 : 2 * (p + 1);
+            long candidate = period;
+            for (long q = 2; q * q <= candidate; q++) {
+                if (candidate % q == 0) {
+                    while (candidate % q == 0) {
+                        candidate /= q;
+                    }
+                    while (period % q == 0 && isPeriod(period / q, p)) {
+                        period /= q;
+                    }
+                }
+            }
+            if (candidate > 1 && period % candidate == 0 && isPeriod(period / candidate, p)) {
+                period /= candidate;
+            }
+        }
+
+        // the period of p^k is the period of p, times p for each power where it has not repeated yet
+        while (!isPeriod(period, primePower)) {
+            period *= p;
+        }
+        return period;
+    }
+
+    private static boolean isPeriod(long period, long m) {
+        // F(period) = 0 and F(period + 1) = 1 mod m
+        return fastDoubling(period, m) == 0 && fastDoubling(period + 1, m) == 1 % m;
+    }
+
+    /**
+     * Fast doubling mod m, walking the bits of n from the most significant:
+     * F(2k) = F(k) * (2 * F(k + 1) - F(k)) and F(2k + 1) = F(k)^2 + F(k + 1)^2
+     */
+    static long fastDoubling(long n, long m) {
+        long fk = 0;
+        long fk1 = 1 % m;
+        for (int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 0; bit--) {
+            long f2k = mulMod(fk, subMod(addMod(fk1, fk1, m), fk, m), m);
+            long f2k1 = addMod(mulMod(fk, fk, m), mulMod(fk1, fk1, m), m);
+            if (((n >>> bit) & 1) == 1) {
+                fk = f2k1;
+                fk1 = addMod(f2k, f2k1, m);
+            } else {
+                fk = f2k;
+                fk1 = f2k1;
+            }
+        }
+        return fk;
+    }
+
+    private static long addMod(long a, long b, long m) {
+        // a, b < m, so this cannot overflow even for m close to Long.MAX_VALUE
+        long sum = a - (m - b);
+        return sum < 0 ? sum + m : sum;
+    }
+
+    private static long subMod(long a, long b, long m) {
+        long difference = a - b;
+        return difference < 0 ? difference + m : difference;
+    }
+
+    private static long mulMod(long a, long b, long m) {
+        if (m <= MAX_DIRECT_MODULUS) {
+            return a * b % m;
+        }
+        // shift and add, so the product never overflows
+        long product = 0;
+        while (b > 0) {
+            if ((b & 1) == 1) {
+                product = addMod(product, a, m);
+            }
+            a = addMod(a, a, m);
+            b >>>= 1;
+        }
+        return product;
+    }
+
+    private static long lcm(long a, long b) {
+        long x = a;
+        long y = b;
+        while (y != 0) {
+            long t = x % y;
+            x = y;
+            y = t;
+        }
+        return a / x * b;
+    }
+
+    private static void checkArguments(boolean negativeN, long m) {
+        if (negativeN) {
+            throw new IllegalArgumentException("n must not be negative");
+        }
+        if (m < 1) {
+            throw new IllegalArgumentException("Modulus must be positive: " + m);
+        }
+    }
+}
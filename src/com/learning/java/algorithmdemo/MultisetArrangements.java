@@ -0,0 +1,397 @@
+package com.learning.java.algorithmdemo;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The distinct k-permutations and k-combinations of a multiset, where equal elements are interchangeable, so that
+ * "aab" has the 3 permutations aab, aba and baa rather than the 6 which
+ * {@link PrintPermutations#findPermutations(char[], int, int)} swaps its way through. Each distinct arrangement is
+ * generated once, in lexicographic order, with no set of those already seen.
+ *
+ * The elements are kept sorted, so equal elements are always taken in order of position, which is what makes each
+ * arrangement come out once. k-permutations step with {@link Permutations#nextPermutation(int[])}: reversing the
+ * elements after the first k, which are in ascending order, makes the next permutation of the whole the next
+ * arrangement of the first k. Combinations are the sorted selections, held as positions in the sorted elements: the
+ * last position which can move to the next larger value does, and the positions after it follow on consecutively.
+ *
+ * The generators have the interfaces of {@link Permutations}: an iterator and a callback over one reused buffer, and
+ * a spliterator which splits by prefix, halving the choices for the next position. Only the first of equal elements is
+ * a choice, so the halves never share an arrangement. The counts are computed without enumerating: n! / (m1! ... md!)
+ * for the permutations of a multiset with multiplicities m1 .. md, and for k of them, generating function
+ * coefficients built one distinct value at a time.
+ */
+public class MultisetArrangements {
+    // spliterators over fewer arrangements than about this are not split
+    private static final long MIN_SPLIT_SIZE = 1 << 10;
+
+    public enum Selection {
+        // ordered selections, k-permutations
+        PERMUTATION,
+        // unordered selections, k-combinations, each handed back in ascending order
+        COMBINATION
+    }
+
+    /**
+     * @param elements the multiset
+     * @param k the number of elements in each arrangement
+     * @param selection permutations or combinations
+     * @return an iterator over the distinct arrangements, handing back the same buffer each time
+     */
+    public static Iterator<int[]> iterator(int[] elements, int k, Selection selection) {
+        int[] buffer = new int[checkSize(elements, k)];
+        Completion completion = new Completion(sorted(elements), k, selection, buffer, 0);
+        return new Iterator<int[]>() {
+            private boolean _ready = true;
+            private boolean _hasNext = completion.first();
+
+            @Override
+            public boolean hasNext() {
+                if (!_ready) {
+                    _hasNext = completion.advance();
+                    _ready = true;
+                }
+                return _hasNext;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _ready = false;
+                return buffer;
+            }
+        };
+    }
+
+    /**
+     * @return a spliterator over the distinct arrangements, which splits by prefix
+     */
+    public static Spliterator<int[]> spliterator(int[] elements, int k, Selection selection) {
+        return new PrefixSpliterator(sorted(elements), new int[checkSize(elements, k)], 0, selection);
+    }
+
+    /**
+     * @return a stream of the distinct arrangements, each a buffer reused for the next
+     */
+    public static Stream<int[]> stream(int[] elements, int k, Selection selection, boolean parallel) {
+        return StreamSupport.stream(spliterator(elements, k, selection), parallel);
+    }
+
+    /**
+     * Calls action with every distinct arrangement in turn, in the same buffer.
+     */
+    public static void forEach(int[] elements, int k, Selection selection, Consumer<int[]> action) {
+        iterator(elements, k, selection).forEachRemaining(action);
+    }
+
+    /**
+     * @return the number of distinct arrangements, without enumerating them
+     */
+    public static BigInteger count(int[] elements, int k, Selection selection) {
+        checkSize(elements, k);
+        int[] multiplicities = multiplicities(sorted(elements));
+        if (selection == Selection.PERMUTATION && k == elements.length) {
+            // the multinomial coefficient n! / (m1! ... md!)
+            BigInteger count = PermutationRank.bigFactorial(k);
+            for (int multiplicity : multiplicities) {
+                count = count.divide(PermutationRank.bigFactorial(multiplicity));
+            }
+            return count;
+        }
+
+        // counts[s] arrangements of size s from the distinct values so far
+        BigInteger[] counts = new BigInteger[k + 1];
+        Arrays.fill(counts, BigInteger.ZERO);
+        counts[0] = BigInteger.ONE;
+        BigInteger[][] binomials = selection == Selection.PERMUTATION ? binomials(k) : null;
+        for (int multiplicity : multiplicities) {
+            BigInteger[] next = new BigInteger[k + 1];
+            for (int s = 0; s <= k; s++) {
+                BigInteger count = BigInteger.ZERO;
+                for (int t = 0; t <= Math.min(multiplicity, s); t++) {
+                    // t copies of the value, placed in any t of the s positions for a permutation
+                    BigInteger ways = counts[s - t];
+                    count = count.add(binomials == null ? ways : ways.multiply(binomials[s][t]));
+                }
+                next[s] = count;
+            }
+            counts = next;
+        }
+        return counts[k];
+    }
+
+    private static BigInteger[][] binomials(int n) {
+        BigInteger[][] binomials = new BigInteger[n + 1][];
+        for (int i = 0; i <= n; i++) {
+            binomials[i] = new BigInteger[i + 1];
+            binomials[i][0] = BigInteger.ONE;
+            binomials[i][i] = BigInteger.ONE;
+            for (int j = 1; j < i; j++) {
+                binomials[i][j] = binomials[i - 1][j - 1].add(binomials[i - 1][j]);
+            }
+        }
+        return binomials;
+    }
+
+    private static int[] multiplicities(int[] sorted) {
+        int[] multiplicities = new int[sorted.length];
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                distinct++;
+            }
+            multiplicities[distinct - 1]++;
+        }
+        return Arrays.copyOf(multiplicities, distinct);
+    }
+
+    private static int[] sorted(int[] elements) {
+        int[] sorted = elements.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static int checkSize(int[] elements, int k) {
+        if (k < 0 || k > elements.length) {
+            throw new IllegalArgumentException("k must be between 0 and " + elements.length + ": " + k);
+        }
+        return k;
+    }
+
+    /**
+     * Enumerates the arrangements of k elements of a sorted pool into out[offset, offset + k).
+     */
+    private static class Completion {
+        private final int[] _pool;
+        private final int _k;
+        private final Selection _selection;
+        private final int[] _out;
+        private final int _offset;
+        // permutations: the pool rearranged, its first k the arrangement, the rest ascending
+        private final int[] _work;
+        // combinations: the positions in the pool of the selection, and for each position where the next larger
+        // value starts
+        private final int[] _positions;
+        private final int[] _nextValue;
+
+        Completion(int[] pool, int k, Selection selection, int[] out, int offset) {
+            _pool = pool;
+            _k = k;
+            _selection = selection;
+            _out = out;
+            _offset = offset;
+            if (selection == Selection.PERMUTATION) {
+                _work = pool.clone();
+                _positions = null;
+                _nextValue = null;
+            } else {
+                _work = null;
+                _positions = new int[k];
+                _nextValue = new int[pool.length];
+                for (int i = pool.length - 1; i >= 0; i--) {
+                    _nextValue[i] = i + 1 < pool.length && pool[i + 1] == pool[i] ? _nextValue[i + 1] : i + 1;
+                }
+            }
+        }
+
+        /**
+         * Writes the first arrangement.
+         *
+         * @return false if there is none
+         */
+        boolean first() {
+            if (_k > _pool.length) {
+                return false;
+            }
+            if (_selection == Selection.PERMUTATION) {
+                System.arraycopy(_pool, 0, _work, 0, _pool.length);
+                System.arraycopy(_work, 0, _out, _offset, _k);
+            } else {
+                for (int i = 0; i < _k; i++) {
+                    _positions[i] = i;
+                }
+                System.arraycopy(_pool, 0, _out, _offset, _k);
+            }
+            return true;
+        }
+
+        /**
+         * Writes the next arrangement.
+         *
+         * @return false after the last
+         */
+        boolean advance() {
+            if (_selection == Selection.PERMUTATION) {
+                Permutations.reverse(_work, _k, _work.length - 1);
+                if (!Permutations.nextPermutation(_work, 0, _work.length)) {
+                    return false;
+                }
+                System.arraycopy(_work, 0, _out, _offset, _k);
+                return true;
+            }
+
+            for (int i = _k - 1; i >= 0; i--) {
+                int next = _nextValue[_positions[i]];
+                if (next + (_k - i) <= _pool.length) {
+                    for (int j = i; j < _k; j++) {
+                        _positions[j] = next + j - i;
+                        _out[_offset + j] = _pool[next + j - i];
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The arrangements beginning with out[0, depth), followed by one of the choices [_low, _high) of the sorted pool
+     * of elements left, where only the first of equal elements is a choice.
+     */
+    private static class PrefixSpliterator implements Spliterator<int[]> {
+        private final Selection _selection;
+        private final int[] _out;
+        private int _depth;
+        private int[] _pool;
+        private int _low;
+        private int _high;
+        // the arrangements after choice _low, once started
+        private Completion _completion;
+        // true for the single empty arrangement, when k is 0
+        private boolean _empty;
+
+        PrefixSpliterator(int[] pool, int[] out, int depth, Selection selection) {
+            this(selection, out, depth, pool, 0, depth == out.length ? 0 : pool.length);
+            _empty = depth == out.length;
+        }
+
+        private PrefixSpliterator(Selection selection, int[] out, int depth, int[] pool, int low, int high) {
+            _selection = selection;
+            _out = out;
+            _depth = depth;
+            _pool = pool;
+            _low = low;
+            _high = high;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            if (_empty) {
+                _empty = false;
+                action.accept(_out);
+                return true;
+            }
+            if (_completion != null) {
+                if (_completion.advance()) {
+                    action.accept(_out);
+                    return true;
+                }
+                _completion = null;
+                _low++;
+            }
+            for (; _low < _high; _low++) {
+                if (!isChoice(_low)) {
+                    continue;
+                }
+                _out[_depth] = _pool[_low];
+                Completion completion = new Completion(rest(_low), _out.length - _depth - 1, _selection, _out,
+                        _depth + 1);
+                if (completion.first()) {
+                    _completion = completion;
+                    action.accept(_out);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isChoice(int i) {
+            return i == 0 || _pool[i] != _pool[i - 1];
+        }
+
+        /**
+         * @return the pool left for the positions after choice i
+         */
+        private int[] rest(int i) {
+            if (_selection == Selection.COMBINATION) {
+                // later positions take equal or larger values, from after the choice
+                return Arrays.copyOfRange(_pool, i + 1, _pool.length);
+            }
+            int[] rest = new int[_pool.length - 1];
+            System.arraycopy(_pool, 0, rest, 0, i);
+            System.arraycopy(_pool, i + 1, rest, i, rest.length - i);
+            return rest;
+        }
+
+        @Override
+        public Spliterator<int[]> trySplit() {
+            if (_completion != null || _empty || estimateSize() < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            int choices = 0;
+            int last = -1;
+            for (int i = _low; i < _high; i++) {
+                if (isChoice(i)) {
+                    choices++;
+                    last = i;
+                }
+            }
+            if (choices == 1) {
+                // a single choice, fix it and split the choices for the next position
+                if (_depth + 1 == _out.length) {
+                    return null;
+                }
+                _out[_depth++] = _pool[last];
+                _pool = rest(last);
+                _low = 0;
+                _high = _pool.length;
+                return trySplit();
+            }
+            if (choices == 0) {
+                return null;
+            }
+
+            // the first half of the choices go to the prefix
+            int mid = _low;
+            for (int seen = 0; seen <= choices / 2; mid++) {
+                if (isChoice(mid)) {
+                    seen++;
+                }
+            }
+            mid--;
+            PrefixSpliterator prefix = new PrefixSpliterator(_selection, _out.clone(), _depth, _pool, _low, mid);
+            _low = mid;
+            return prefix;
+        }
+
+        /**
+         * An estimate which treats the pool as distinct elements, exact when they are.
+         */
+        @Override
+        public long estimateSize() {
+            if (_empty) {
+                return 1;
+            }
+            int positions = _out.length - _depth - 1;
+            int pool = _pool.length - 1;
+            double size = _high - _low;
+            for (int i = 0; i < positions; i++) {
+                size *= _selection == Selection.PERMUTATION ? pool - i : (double) (pool - i) / (i + 1);
+            }
+            return size >= Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, (long) size);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Splits values into k parts so that the largest part sum is as small as possible, the k way form of
+ * {@link FindEqualPartitions}, as in balancing jobs across k workers.
+ *
+ * Karmarkar-Karp differencing is the fast heuristic. Every value starts as a k tuple of part sums (v, 0, ..., 0), and
+ * the two tuples with the largest spread are repeatedly combined, the largest part of one with the smallest of the
+ * other, which cancels as much of both spreads as possible, until one tuple is left.
+ *
+ * The branch and bound search is exact, given the time. Values are placed largest first into each part in turn,
+ * starting from the Karmarkar-Karp answer as the best so far. A placement is pruned when it would make a part no
+ * smaller than the best, and parts with equal sums are interchangeable so only the first of them is tried. The top
+ * levels of the search tree are forked as ForkJoin tasks which share the best largest part through an
+ * {@link AtomicLong}, so a better answer found by one prunes all the others at once. The search stops at the
+ * deadline, or as soon as it reaches the lower bound, and returns the best partition found.
+ */
+public class MultiwayPartition {
+  // levels of the search tree forked as tasks, below this each task searches on its own
+  private static final int FORK_DEPTH = 6;
+  // nodes a task visits between checks of the deadline
+  private static final int DEADLINE_CHECK_NODES = 1 << 12;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * A partition of values into parts.
+   */
+  public static class Result {
+    // the part of each value
+    public final int[] parts;
+    public final long[] sums;
+    public final long largest;
+    // true when the search finished, or reached the lower bound, before the deadline
+    public final boolean optimal;
+
+    Result(int[] parts, int k, long[] values, boolean optimal) {
+      this.parts = parts;
+      this.sums = new long[k];
+      for (int i = 0; i < values.length; i++) {
+        sums[parts[i]] += values[i];
+      }
+      long max = 0;
+      for (long sum : sums) {
+        max = Math.max(max, sum);
+      }
+      this.largest = max;
+      this.optimal = optimal;
+    }
+  }
+
+  /**
+   * A k tuple of part sums, largest first, with the values in each part as a linked list through next.
+   */
+  private static class Tuple {
+    final long[] sums;
+    final int[] heads;
+    final int[] tails;
+
+    Tuple(int k) {
+      sums = new long[k];
+      heads = new int[k];
+      tails = new int[k];
+    }
+
+    long spread() {
+      return sums[0] - sums[sums.length - 1];
+    }
+  }
+
+  /**
+   * The Karmarkar-Karp differencing heuristic, O(n log n + n k log k).
+   *
+   * @param values the values, none negative
+   * @param k the number of parts
+   * @return a partition of the values into k parts
+   */
+  public static Result karmarkarKarp(long[] values, int k) {
+    checkArguments(values, k);
+    int n = values.length;
+    // the next value in the same part, -1 at the end
+    int[] next = new int[n];
+    PriorityQueue<Tuple> tuples = new PriorityQueue<>(Math.max(1, n),
+        Comparator.comparingLong(Tuple::spread).reversed());
+    for (int i = 0; i < n; i++) {
+      Tuple tuple = new Tuple(k);
+      Arrays.fill(tuple.heads, -1);
+      Arrays.fill(tuple.tails, -1);
+      tuple.sums[0] = values[i];
+      tuple.heads[0] = i;
+      tuple.tails[0] = i;
+      next[i] = -1;
+      tuples.add(tuple);
+    }
+
+    Integer[] order = new Integer[k];
+    while (tuples.size() > 1) {
+      Tuple a = tuples.poll();
+      Tuple b = tuples.poll();
+      Tuple combined = new Tuple(k);
+      for (int p = 0; p < k; p++) {
+        // a's largest with b's smallest
+        int q = k - 1 - p;
+        combined.sums[p] = a.sums[p] + b.sums[q];
+        combined.heads[p] = join(next, a.heads[p], a.tails[p], b.heads[q]);
+        combined.tails[p] = b.tails[q] >= 0 ? b.tails[q] : a.tails[p];
+      }
+      sortDescending(combined, order);
+      tuples.add(combined);
+    }
+
+    int[] parts = new int[n];
+    Tuple last = tuples.poll();
+    if (last != null) {
+      for (int p = 0; p < k; p++) {
+        for (int i = last.heads[p]; i >= 0; i = next[i]) {
+          parts[i] = p;
+        }
+      }
+    }
+    return new Result(parts, k, values, false);
+  }
+
+  /**
+   * The anytime branch and bound search, starting from the Karmarkar-Karp answer.
+   *
+   * @param values the values, none negative
+   * @param k the number of parts
+   * @param timeout how long to search for
+   * @param unit the unit of timeout
+   * @return the best partition found, optimal if the search finished in time
+   */
+  public static Result branchAndBound(long[] values, int k, long timeout, TimeUnit unit) {
+    checkArguments(values, k);
+    Result initial = karmarkarKarp(values, k);
+    Search search = new Search(values, k, initial, System.nanoTime() + unit.toNanos(timeout));
+    if (search._best.get() > search._lowerBound) {
+      POOL.invoke(search.new BranchTask(0, new long[k], new int[values.length]));
+    }
+    synchronized (search) {
+      return new Result(search._bestParts, k, values, !search._timedOut);
+    }
+  }
+
+  private static class Search {
+    // values largest first, and the index of each in the input
+    private final long[] _sorted;
+    private final int[] _order;
+    private final int _k;
+    private final long _deadline;
+    // no partition can have a smaller largest part than this
+    private final long _lowerBound;
+    // the largest part of the best partition so far, read without the lock to prune
+    private final AtomicLong _best;
+    // guarded by this, the parts of the best partition, by input index
+    private int[] _bestParts;
+    private volatile boolean _stop;
+    private volatile boolean _timedOut;
+
+    Search(long[] values, int k, Result initial, long deadline) {
+      int n = values.length;
+      Integer[] order = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> Long.compare(values[b], values[a]));
+      _sorted = new long[n];
+      _order = new int[n];
+      long total = 0;
+      long max = 0;
+      for (int i = 0; i < n; i++) {
+        _order[i] = order[i];
+        _sorted[i] = values[order[i]];
+        total += _sorted[i];
+        max = Math.max(max, _sorted[i]);
+      }
+      _k = k;
+      _deadline = deadline;
+      _lowerBound = Math.max(max, (total + k - 1) / k);
+      _best = new AtomicLong(initial.largest);
+      _bestParts = initial.parts.clone();
+    }
+
+    /**
+     * Places the values from depth on, forking a task per part while near the top of the tree.
+     */
+    private class BranchTask extends RecursiveAction {
+      private final int _depth;
+      private final long[] _sums;
+      private final int[] _parts;
+      private int _nodes;
+
+      BranchTask(int depth, long[] sums, int[] parts) {
+        _depth = depth;
+        _sums = sums;
+        _parts = parts;
+      }
+
+      @Override
+      protected void compute() {
+        if (_depth >= FORK_DEPTH || _depth >= _sorted.length) {
+          search(_depth);
+          return;
+        }
+
+        long value = _sorted[_depth];
+        BranchTask[] children = new BranchTask[_k];
+        int count = 0;
+        for (int p = 0; p < _k; p++) {
+          if (canPlace(p, value)) {
+            long[] sums = _sums.clone();
+            int[] parts = _parts.clone();
+            sums[p] += value;
+            parts[_order[_depth]] = p;
+            children[count++] = new BranchTask(_depth + 1, sums, parts);
+          }
+        }
+        invokeAll(Arrays.asList(children).subList(0, count));
+      }
+
+      private void search(int depth) {
+        if (_stop) {
+          return;
+        }
+        if (++_nodes % DEADLINE_CHECK_NODES == 0 && System.nanoTime() > _deadline) {
+          _timedOut = true;
+          _stop = true;
+          return;
+        }
+        if (depth == _sorted.length) {
+          record();
+          return;
+        }
+
+        long value = _sorted[depth];
+        for (int p = 0; p < _k; p++) {
+          if (canPlace(p, value)) {
+            _sums[p] += value;
+            _parts[_order[depth]] = p;
+            search(depth + 1);
+            _sums[p] -= value;
+          }
+        }
+      }
+
+      /**
+       * A part is worth trying if it stays below the best, and no earlier part has the same sum.
+       */
+      private boolean canPlace(int part, long value) {
+        if (_sums[part] + value >= _best.get()) {
+          return false;
+        }
+        for (int p = 0; p < part; p++) {
+          if (_sums[p] == _sums[part]) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      private void record() {
+        long largest = 0;
+        for (long sum : _sums) {
+          largest = Math.max(largest, sum);
+        }
+        synchronized (Search.this) {
+          if (largest < _best.get()) {
+            _best.set(largest);
+            _bestParts = _parts.clone();
+            if (largest <= _lowerBound) {
+              _stop = true;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Appends the list starting at head2 to the list from head1 to tail1.
+   *
+   * @return the head of the joined list
+   */
+  private static int join(int[] next, int head1, int tail1, int head2) {
+    if (head1 < 0) {
+      return head2;
+    }
+    next[tail1] = head2;
+    return head1;
+  }
+
+  private static void sortDescending(Tuple tuple, Integer[] order) {
+    int k = tuple.sums.length;
+    for (int p = 0; p < k; p++) {
+      order[p] = p;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(tuple.sums[b], tuple.sums[a]));
+    long[] sums = tuple.sums.clone();
+    int[] heads = tuple.heads.clone();
+    int[] tails = tuple.tails.clone();
+    for (int p = 0; p < k; p++) {
+      tuple.sums[p] = sums[order[p]];
+      tuple.heads[p] = heads[order[p]];
+      tuple.tails[p] = tails[order[p]];
+    }
+  }
+
+  private static void checkArguments(long[] values, int k) {
+    if (k < 1) {
+      throw new IllegalArgumentException("The number of parts must be positive: " + k);
+    }
+    long total = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] < 0) {
+        throw new IllegalArgumentException("Values must not be negative: " + values[i] + " at " + i);
+      }
+      // the part sums must not overflow
+      total = Math.addExact(total, values[i]);
+    }
+  }
+}
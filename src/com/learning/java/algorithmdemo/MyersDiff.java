@@ -0,0 +1,388 @@
+package com.learning.java.algorithmdemo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Myers' O(ND) diff, where D is the size of the edit script, for diffing large files which are mostly the same. The
+ * LCS table of {@link LongestCommonSubsequence} costs O(mn) whatever the inputs, while here two files a few lines apart
+ * cost little more than reading them.
+ *
+ * Files are read through {@link FileChannel#map}, and compared either byte by byte or line by line. Lines are hashed
+ * once, and lines with the same content are given the same id, so the diff itself compares ints. The common prefix and
+ * suffix are trimmed before any ids are assigned, so only the part of the files that differs is ever indexed.
+ *
+ * The diff uses the linear space refinement: the middle snake of an optimal edit path is found by running the greedy
+ * search forward from the start and backward from the end until they meet, then both sides of it are diffed
+ * recursively. Edits come out in order, and are handed to a {@link HunkListener} as soon as each hunk is complete, so
+ * the edit script is never held in memory.
+ */
+public class MyersDiff {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Receives each hunk of the edit script in order. A hunk replaces the old range [oldFrom, oldTo) with the new range
+     * [newFrom, newTo), either of which may be empty, and is separated from the next hunk by at least one match.
+     */
+    public interface HunkListener {
+        void hunk(int oldFrom, int oldTo, int newFrom, int newTo);
+    }
+
+    /**
+     * The lines of a memory mapped file, each with its start offset and hash. Lines end after each '\n', the last line
+     * may not have one.
+     */
+    public static class Lines {
+        private final MappedByteBuffer _buffer;
+        // line i is [starts[i], starts[i + 1])
+        private final int[] _starts;
+        private final long[] _hashes;
+
+        private Lines(MappedByteBuffer buffer) {
+            _buffer = buffer;
+            int size = buffer.limit();
+
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (buffer.get(i) == '\n') {
+                    count++;
+                }
+            }
+            if (size > 0 && buffer.get(size - 1) != '\n') {
+                count++;
+            }
+
+            _starts = new int[count + 1];
+            _hashes = new long[count];
+            int line = 0;
+            long hash = FNV_OFFSET;
+            for (int i = 0; i < size; i++) {
+                byte b = buffer.get(i);
+                hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+                if (b == '\n' || i == size - 1) {
+                    _hashes[line] = hash;
+                    _starts[++line] = i + 1;
+                    hash = FNV_OFFSET;
+                }
+            }
+        }
+
+        public static Lines map(Path path) {
+            return new Lines(MyersDiff.map(path));
+        }
+
+        public int count() {
+            return _hashes.length;
+        }
+
+        /**
+         * @return line i decoded as UTF-8, without its line ending
+         */
+        public String line(int i) {
+            int from = _starts[i];
+            int to = _starts[i + 1];
+            while (to > from && (_buffer.get(to - 1) == '\n' || _buffer.get(to - 1) == '\r')) {
+                to--;
+            }
+            byte[] bytes = new byte[to - from];
+            _buffer.get(from, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private boolean sameLine(int i, Lines other, int j) {
+            if (_hashes[i] != other._hashes[j]) {
+                return false;
+            }
+            int length = _starts[i + 1] - _starts[i];
+            if (length != other._starts[j + 1] - other._starts[j]) {
+                return false;
+            }
+            // the hashes match, check the bytes so a collision cannot hide an edit
+            return _buffer.slice(_starts[i], length).equals(other._buffer.slice(other._starts[j], length));
+        }
+    }
+
+    /**
+     * Diffs two files line by line.
+     *
+     * @return the number of lines deleted plus the number inserted
+     */
+    public static int diffLines(Path oldFile, Path newFile, HunkListener listener) {
+        return diffLines(Lines.map(oldFile), Lines.map(newFile), listener);
+    }
+
+    /**
+     * Diffs two mapped files line by line, hunks are line ranges.
+     *
+     * @return the number of lines deleted plus the number inserted
+     */
+    public static int diffLines(Lines oldLines, Lines newLines, HunkListener listener) {
+        int oldTo = oldLines.count();
+        int newTo = newLines.count();
+        int prefix = 0;
+        while (prefix < oldTo && prefix < newTo && oldLines.sameLine(prefix, newLines, prefix)) {
+            prefix++;
+        }
+        while (oldTo > prefix && newTo > prefix && oldLines.sameLine(oldTo - 1, newLines, newTo - 1)) {
+            oldTo--;
+            newTo--;
+        }
+
+        // the same id for every line with the same content, over both files
+        LineIds ids = new LineIds(oldTo - prefix + newTo - prefix);
+        int[] oldIds = new int[oldTo - prefix];
+        for (int i = 0; i < oldIds.length; i++) {
+            oldIds[i] = ids.idOf(oldLines, prefix + i);
+        }
+        int[] newIds = new int[newTo - prefix];
+        for (int j = 0; j < newIds.length; j++) {
+            newIds[j] = ids.idOf(newLines, prefix + j);
+        }
+
+        return new Engine(oldIds, newIds, prefix, prefix, listener).run();
+    }
+
+    /**
+     * Diffs two files byte by byte, hunks are byte ranges.
+     *
+     * @return the number of bytes deleted plus the number inserted
+     */
+    public static int diffBytes(Path oldFile, Path newFile, HunkListener listener) {
+        MappedByteBuffer oldBytes = map(oldFile);
+        MappedByteBuffer newBytes = map(newFile);
+
+        int oldTo = oldBytes.limit();
+        int newTo = newBytes.limit();
+        int prefix = oldBytes.mismatch(newBytes);
+        if (prefix < 0) {
+            return 0;
+        }
+        while (oldTo > prefix && newTo > prefix && oldBytes.get(oldTo - 1) == newBytes.get(newTo - 1)) {
+            oldTo--;
+            newTo--;
+        }
+
+        int[] oldIds = new int[oldTo - prefix];
+        for (int i = 0; i < oldIds.length; i++) {
+            oldIds[i] = oldBytes.get(prefix + i);
+        }
+        int[] newIds = new int[newTo - prefix];
+        for (int j = 0; j < newIds.length; j++) {
+            newIds[j] = newBytes.get(prefix + j);
+        }
+
+        return new Engine(oldIds, newIds, prefix, prefix, listener).run();
+    }
+
+    /**
+     * Diffs two sequences of ids, such as characters or interned lines.
+     *
+     * @return the number of elements deleted plus the number inserted
+     */
+    public static int diff(int[] oldSequence, int[] newSequence, HunkListener listener) {
+        return new Engine(oldSequence, newSequence, 0, 0, listener).run();
+    }
+
+    /**
+     * Interns lines by content, an open addressing table from line hash to the first line seen with that content.
+     */
+    private static class LineIds {
+        private final long[] _hashes;
+        private final Lines[] _lines;
+        private final int[] _lineIndexes;
+        private final int[] _ids;
+        private final int _mask;
+        private int _nextId;
+
+        LineIds(int lines) {
+            int capacity = Integer.highestOneBit(Math.max(2, lines) * 2 - 1) << 1;
+            _hashes = new long[capacity];
+            _lines = new Lines[capacity];
+            _lineIndexes = new int[capacity];
+            _ids = new int[capacity];
+            _mask = capacity - 1;
+        }
+
+        int idOf(Lines lines, int i) {
+            long hash = lines._hashes[i];
+            int slot = (int) (hash ^ (hash >>> 32)) & _mask;
+            while (_lines[slot] != null) {
+                if (_hashes[slot] == hash && _lines[slot].sameLine(_lineIndexes[slot], lines, i)) {
+                    return _ids[slot];
+                }
+                slot = (slot + 1) & _mask;
+            }
+            _hashes[slot] = hash;
+            _lines[slot] = lines;
+            _lineIndexes[slot] = i;
+            _ids[slot] = _nextId;
+            return _nextId++;
+        }
+    }
+
+    /**
+     * The linear space Myers diff over two id sequences, sharing one pair of V arrays across the whole recursion.
+     */
+    private static class Engine {
+        private final int[] _a;
+        private final int[] _b;
+        // added to every reported position, the length of the trimmed common prefix
+        private final int _oldBase;
+        private final int _newBase;
+        private final HunkListener _listener;
+
+        // the furthest x reached on each diagonal k, at index k + offset, forward and backward
+        private final int[] _forward;
+        private final int[] _backward;
+        private final int _offset;
+
+        // the hunk being built, reported once a match separates it from the next edit
+        private int _hunkOldFrom = -1;
+        private int _hunkOldTo;
+        private int _hunkNewFrom;
+        private int _hunkNewTo;
+        private int _edits;
+
+        Engine(int[] a, int[] b, int oldBase, int newBase, HunkListener listener) {
+            _a = a;
+            _b = b;
+            _oldBase = oldBase;
+            _newBase = newBase;
+            _listener = listener;
+
+            int max = (a.length + b.length + 1) / 2 + 1;
+            _offset = max + 1;
+            _forward = new int[2 * max + 3];
+            _backward = new int[2 * max + 3];
+        }
+
+        int run() {
+            diff(0, _a.length, 0, _b.length);
+            flush();
+            return _edits;
+        }
+
+        private void diff(int aFrom, int aTo, int bFrom, int bTo) {
+            while (aFrom < aTo && bFrom < bTo && _a[aFrom] == _b[bFrom]) {
+                aFrom++;
+                bFrom++;
+            }
+            while (aFrom < aTo && bFrom < bTo && _a[aTo - 1] == _b[bTo - 1]) {
+                aTo--;
+                bTo--;
+            }
+
+            if (aFrom == aTo || bFrom == bTo) {
+                if (aFrom < aTo || bFrom < bTo) {
+                    edit(aFrom, aTo, bFrom, bTo);
+                }
+                return;
+            }
+
+            // with the common ends trimmed, the middle snake splits the problem into two with fewer edits each
+            long snake = middleSnake(aFrom, aTo, bFrom, bTo);
+            int x = (int) (snake >>> 32);
+            int y = (int) snake;
+            diff(aFrom, x, bFrom, y);
+            diff(x, aTo, y, bTo);
+        }
+
+        /**
+         * Runs the greedy search forward from (aFrom, bFrom) and backward from (aTo, bTo), one more edit at a time,
+         * until the furthest paths on some diagonal overlap.
+         *
+         * @return the start of the middle snake, x in the high 32 bits and y in the low
+         */
+        private long middleSnake(int aFrom, int aTo, int bFrom, int bTo) {
+            int n = aTo - aFrom;
+            int m = bTo - bFrom;
+            int delta = n - m;
+            boolean odd = (delta & 1) != 0;
+            int[] vf = _forward;
+            int[] vb = _backward;
+            int offset = _offset;
+            vf[offset + 1] = 0;
+            vb[offset + 1] = 0;
+
+            int max = (n + m + 1) / 2;
+            for (int d = 0; d <= max; d++) {
+                for (int k = -d; k <= d; k += 2) {
+                    int x = (k == -d || (k != d && vf[offset + k - 1] < vf[offset + k + 1]))
+                            ? vf[offset + k + 1] : vf[offset + k - 1] + 1;
+                    int y = x - k;
+                    int startX = x;
+                    int startY = y;
+                    while (x < n && y < m && _a[aFrom + x] == _b[bFrom + y]) {
+                        x++;
+                        y++;
+                    }
+                    vf[offset + k] = x;
+
+                    // the backward paths of the previous step, on the same diagonal seen from the end
+                    int reverseK = delta - k;
+                    if (odd && reverseK >= -(d - 1) && reverseK <= d - 1 && x + vb[offset + reverseK] >= n) {
+                        return ((long) (aFrom + startX) << 32) | (bFrom + startY);
+                    }
+                }
+
+                for (int k = -d; k <= d; k += 2) {
+                    // x and y count back from the ends
+                    int x = (k == -d || (k != d && vb[offset + k - 1] < vb[offset + k + 1]))
+                            ? vb[offset + k + 1] : vb[offset + k - 1] + 1;
+                    int y = x - k;
+                    while (x < n && y < m && _a[aTo - 1 - x] == _b[bTo - 1 - y]) {
+                        x++;
+                        y++;
+                    }
+                    vb[offset + k] = x;
+
+                    int forwardK = delta - k;
+                    if (!odd && forwardK >= -d && forwardK <= d && x + vf[offset + forwardK] >= n) {
+                        return ((long) (aTo - x) << 32) | (bTo - y);
+                    }
+                }
+            }
+            throw new IllegalStateException("No middle snake found, the paths must meet within " + max + " edits");
+        }
+
+        private void edit(int aFrom, int aTo, int bFrom, int bTo) {
+            _edits += (aTo - aFrom) + (bTo - bFrom);
+            if (_hunkOldFrom >= 0 && aFrom == _hunkOldTo && bFrom == _hunkNewTo) {
+                // no match in between, part of the same hunk
+                _hunkOldTo = aTo;
+                _hunkNewTo = bTo;
+                return;
+            }
+            flush();
+            _hunkOldFrom = aFrom;
+            _hunkOldTo = aTo;
+            _hunkNewFrom = bFrom;
+            _hunkNewTo = bTo;
+        }
+
+        private void flush() {
+            if (_hunkOldFrom >= 0) {
+                _listener.hunk(_oldBase + _hunkOldFrom, _oldBase + _hunkOldTo, _newBase + _hunkNewFrom,
+                        _newBase + _hunkNewTo);
+                _hunkOldFrom = -1;
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Files over 2GB cannot be mapped as one buffer: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not map " + path, ex);
+        }
+    }
+}
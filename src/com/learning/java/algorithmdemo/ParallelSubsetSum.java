@@ -0,0 +1,144 @@
+package com.learning.java.algorithmdemo;
+
+import com.learning.java.utils.LongMemoTable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The include or exclude recursion of {@link FindEqualPartitions#isSubsetSumMatch(int[], int, int)} spread across a
+ * ForkJoin pool, memoized, and stopped as soon as any branch finds a match.
+ *
+ * Near the top of the recursion each call forks its two branches, leaving out the last element or taking it, as
+ * separate tasks. Below the fork depth a task carries on sequentially. Every (n, remainingSum) pair found to have no
+ * match is stored in a shared {@link LongMemoTable}, keyed by the two packed into one long, so each pair is searched
+ * once by whichever task reaches it first. The memo only records failures, since a success ends the search: the
+ * finding task sets a shared flag which every task reads on each call, returning at once, so outstanding work drains
+ * within one call per task. A call also returns false at once when the first n elements sum to less than
+ * remainingSum.
+ */
+public class ParallelSubsetSum {
+  // levels of the recursion whose two branches are forked as tasks
+  private static final int FORK_DEPTH = 12;
+  // the most (n, remainingSum) pairs remembered, the table evicts beyond this
+  private static final int MAX_MEMO_ENTRIES = 1 << 22;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * @param array the input, none negative
+   * @param n the number of elements of array to choose from
+   * @param remainingSum the sum to match
+   * @return true if some of the first n elements of array sum to remainingSum
+   */
+  public static boolean isSubsetSumMatch(int[] array, int n, int remainingSum) {
+    if (n < 0 || n > array.length) {
+      throw new IllegalArgumentException("n must be between 0 and " + array.length + ": " + n);
+    }
+    // prefixSums[i] is the sum of the first i elements
+    long[] prefixSums = new long[n + 1];
+    for (int i = 0; i < n; i++) {
+      if (array[i] < 0) {
+        throw new IllegalArgumentException("Values must not be negative: " + array[i] + " at " + i);
+      }
+      prefixSums[i + 1] = prefixSums[i] + array[i];
+    }
+
+    Search search = new Search(array, prefixSums);
+    POOL.invoke(search.new MatchTask(n, remainingSum, 0));
+    return search._found.get();
+  }
+
+  private static class Search {
+    private final int[] _array;
+    private final long[] _prefixSums;
+    private final LongMemoTable _noMatch = new LongMemoTable(MAX_MEMO_ENTRIES);
+    // set by the first branch to find a match, every task stops once it is
+    private final AtomicBoolean _found = new AtomicBoolean();
+
+    Search(int[] array, long[] prefixSums) {
+      _array = array;
+      _prefixSums = prefixSums;
+    }
+
+    /**
+     * Searches for a match among the first n elements, forking both branches while above the fork depth.
+     */
+    private class MatchTask extends RecursiveAction {
+      private final int _n;
+      private final int _remainingSum;
+      private final int _depth;
+
+      MatchTask(int n, int remainingSum, int depth) {
+        _n = n;
+        _remainingSum = remainingSum;
+        _depth = depth;
+      }
+
+      @Override
+      protected void compute() {
+        if (_depth >= FORK_DEPTH) {
+          isMatch(_n, _remainingSum);
+          return;
+        }
+        if (isDecided(_n, _remainingSum)) {
+          return;
+        }
+
+        int prevIdx = _n - 1;
+        int value = _array[prevIdx];
+        if (value > _remainingSum) {
+          new MatchTask(prevIdx, _remainingSum, _depth + 1).compute();
+        } else {
+          invokeAll(new MatchTask(prevIdx, _remainingSum, _depth + 1),
+              new MatchTask(prevIdx, _remainingSum - value, _depth + 1));
+        }
+        remember(_n, _remainingSum);
+      }
+    }
+
+    /**
+     * The sequential recursion, as in {@link FindEqualPartitions#isSubsetSumMatch(int[], int, int)}.
+     */
+    private boolean isMatch(int n, int remainingSum) {
+      if (isDecided(n, remainingSum)) {
+        return _found.get();
+      }
+
+      int prevIdx = n - 1;
+      boolean isMatch = isMatch(prevIdx, remainingSum)
+          || (_array[prevIdx] <= remainingSum && isMatch(prevIdx, remainingSum - _array[prevIdx]));
+      if (!isMatch) {
+        remember(n, remainingSum);
+      }
+      return isMatch;
+    }
+
+    /**
+     * Settles the calls whose answer needs no search: a match, no elements left, too little left to reach the sum,
+     * a pair already known to fail, or another branch having found a match.
+     *
+     * @return true if there is nothing left to search for the pair
+     */
+    private boolean isDecided(int n, int remainingSum) {
+      if (_found.get()) {
+        return true;
+      }
+      if (remainingSum == 0) {
+        _found.set(true);
+        return true;
+      }
+      return n == 0 || _prefixSums[n] < remainingSum
+          || _noMatch.get(LongMemoTable.pack(n, remainingSum)) != LongMemoTable.MISSING;
+    }
+
+    /**
+     * Records that the pair has no match, unless the search was cut short by a match elsewhere.
+     */
+    private void remember(int n, int remainingSum) {
+      if (!_found.get()) {
+        _noMatch.put(LongMemoTable.pack(n, remainingSum), 0);
+      }
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+
+/**
+ * The longest increasing subsequence by patience sorting, O(n log n).
+ *
+ * Values are dealt onto piles, each onto the leftmost pile whose top is at least the value (strict) or greater than it
+ * (non strict), or onto a new pile on the right. The top of pile k, tails[k], is then the smallest value that ends an
+ * increasing subsequence of length k + 1 seen so far. tails is always sorted, so each value finds its pile by binary
+ * search, and the number of piles is the LIS length. Each value also links to the top of the pile to its left when it
+ * was placed, which is the element before it in an increasing subsequence, so following the links back from the top
+ * of the last pile gives an LIS.
+ *
+ * Values can be added one at a time, as from a stream, and the length is known after every one.
+ */
+public class PatienceLis {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean _strict;
+
+    // every value added, and the index of the value before it in the longest subsequence it ends, -1 for none
+    private int[] _values = new int[INITIAL_CAPACITY];
+    private int[] _predecessors = new int[INITIAL_CAPACITY];
+    private int _count;
+
+    // tails[k] is the smallest value ending an increasing subsequence of length k + 1, at index tailIndexes[k]
+    private int[] _tails = new int[INITIAL_CAPACITY];
+    private int[] _tailIndexes = new int[INITIAL_CAPACITY];
+    private int _length;
+
+    /**
+     * @param strict true for strictly increasing subsequences, false to allow equal neighbours
+     */
+    public PatienceLis(boolean strict) {
+        _strict = strict;
+    }
+
+    /**
+     * @param values the sequence
+     * @param strict true for strictly increasing, false to allow equal neighbours
+     * @return a longest increasing subsequence of values
+     */
+    public static int[] lis(int[] values, boolean strict) {
+        PatienceLis lis = new PatienceLis(strict);
+        for (int value : values) {
+            lis.add(value);
+        }
+        return lis.subsequence();
+    }
+
+    /**
+     * Adds the next value of the sequence, O(log n).
+     */
+    public void add(int value) {
+        if (_count == _values.length) {
+            _values = Arrays.copyOf(_values, _count * 2);
+            _predecessors = Arrays.copyOf(_predecessors, _count * 2);
+        }
+        if (_length == _tails.length) {
+            _tails = Arrays.copyOf(_tails, _length * 2);
+            _tailIndexes = Arrays.copyOf(_tailIndexes, _length * 2);
+        }
+
+        int pile = findPile(value);
+        _values[_count] = value;
+        _predecessors[_count] = pile > 0 ? _tailIndexes[pile - 1] : -1;
+        _tails[pile] = value;
+        _tailIndexes[pile] = _count;
+        if (pile == _length) {
+            _length++;
+        }
+        _count++;
+    }
+
+    /**
+     * @return the length of the longest increasing subsequence of the values so far
+     */
+    public int length() {
+        return _length;
+    }
+
+    /**
+     * @return the number of values added so far
+     */
+    public int count() {
+        return _count;
+    }
+
+    /**
+     * @return a longest increasing subsequence of the values so far, O(length)
+     */
+    public int[] subsequence() {
+        int[] subsequence = new int[_length];
+        int index = _length > 0 ? _tailIndexes[_length - 1] : -1;
+        for (int k = _length - 1; k >= 0; k--) {
+            subsequence[k] = _values[index];
+            index = _predecessors[index];
+        }
+        return subsequence;
+    }
+
+    /**
+     * @return the first pile whose tail the value can replace, the tail >= value when strict and > value otherwise
+     */
+    private int findPile(int value) {
+        int low = 0;
+        int high = _length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int tail = _tails[mid];
+            if (tail < value || (!_strict && tail == value)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
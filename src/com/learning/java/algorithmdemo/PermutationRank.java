@@ -0,0 +1,299 @@
+package com.learning.java.algorithmdemo;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The position, or rank, of a permutation of 0 .. n - 1 in lexicographic order, and the permutation at a rank, so
+ * that any range of ranks [from, to) can be enumerated on its own: split across threads or worker processes, or
+ * resumed from the rank of the last permutation a job finished.
+ *
+ * A permutation's Lehmer code holds, for each position, how many of the elements not yet placed are smaller than the
+ * one placed there. Read as digits of the factorial number system, position i counting (n - 1 - i)!, the code is the
+ * rank. Counting the smaller unplaced elements, and finding the k-th smallest unplaced element to unrank, are prefix
+ * sums over a Fenwick tree of the unplaced elements, so both directions take O(n log n). Ranks of up to 20 elements
+ * fit in a long, and larger ones are {@link BigInteger}s.
+ *
+ * A range is enumerated by unranking its first permutation, then taking the next lexicographic permutation with
+ * {@link Permutations#nextPermutation(int[])} in one reused buffer. The spliterator over a range splits it at its
+ * middle rank, so each half starts on its own without enumerating what comes before it.
+ */
+public class PermutationRank {
+    // spliterators over fewer permutations than this are not split
+    private static final long MIN_SPLIT_SIZE = 1 << 10;
+
+    /**
+     * @param permutation a permutation of 0 .. n - 1, for n at most {@link Permutations#MAX_LONG_FACTORIAL}
+     * @return its rank in lexicographic order, from 0
+     */
+    public static long rank(int[] permutation) {
+        if (permutation.length > Permutations.MAX_LONG_FACTORIAL) {
+            throw new ArithmeticException("The rank of " + permutation.length + " elements does not fit in a long");
+        }
+        int[] code = lehmerCode(permutation);
+        long rank = 0;
+        for (int i = 0; i < code.length; i++) {
+            // the digit of position i counts (n - 1 - i)!, so by Horner's rule multiply by the digits still to come
+            rank = rank * (code.length - i) + code[i];
+        }
+        return rank;
+    }
+
+    /**
+     * @param permutation a permutation of 0 .. n - 1
+     * @return its rank in lexicographic order, from 0
+     */
+    public static BigInteger bigRank(int[] permutation) {
+        int[] code = lehmerCode(permutation);
+        int n = code.length;
+        // the last m digits count at most (m - 1)!, so together they fit in a long, and the rest count multiples of m!
+        int m = Math.min(n, Permutations.MAX_LONG_FACTORIAL);
+        BigInteger rank = BigInteger.ZERO;
+        for (int i = 0; i < n - m; i++) {
+            rank = rank.multiply(BigInteger.valueOf(n - i)).add(BigInteger.valueOf(code[i]));
+        }
+        long tail = 0;
+        for (int i = n - m; i < n; i++) {
+            tail = tail * (n - i) + code[i];
+        }
+        rank = rank.multiply(BigInteger.valueOf(Permutations.factorial(m))).add(BigInteger.valueOf(tail));
+        return rank;
+    }
+
+    /**
+     * @param rank the rank in lexicographic order, from 0
+     * @param n the number of elements
+     * @return the permutation of 0 .. n - 1 at the rank
+     */
+    public static int[] unrank(long rank, int n) {
+        if (rank < 0 || (n <= Permutations.MAX_LONG_FACTORIAL && rank >= Permutations.factorial(n))) {
+            throw new IllegalArgumentException("Rank out of range for " + n + " elements: " + rank);
+        }
+        int[] code = new int[n];
+        for (int i = n - 1; i >= 0 && rank > 0; i--) {
+            code[i] = (int) (rank % (n - i));
+            rank /= n - i;
+        }
+        return fromLehmerCode(code);
+    }
+
+    /**
+     * @param rank the rank in lexicographic order, from 0
+     * @param n the number of elements
+     * @return the permutation of 0 .. n - 1 at the rank
+     */
+    public static int[] unrank(BigInteger rank, int n) {
+        if (rank.bitLength() < Long.SIZE) {
+            return unrank(rank.longValue(), n);
+        }
+        int[] code = new int[n];
+        BigInteger remaining = rank;
+        for (int i = n - 1; i >= 0 && remaining.signum() > 0; i--) {
+            BigInteger[] quotientAndRemainder = remaining.divideAndRemainder(BigInteger.valueOf(n - i));
+            code[i] = quotientAndRemainder[1].intValue();
+            remaining = quotientAndRemainder[0];
+        }
+        if (remaining.signum() != 0) {
+            throw new IllegalArgumentException("Rank out of range for " + n + " elements: " + rank);
+        }
+        return fromLehmerCode(code);
+    }
+
+    /**
+     * @return an iterator over the permutations of 0 .. n - 1 with ranks in [from, to), in one reused buffer
+     */
+    public static Iterator<int[]> iterator(int n, long from, long to) {
+        return iterator(n, BigInteger.valueOf(from), BigInteger.valueOf(to));
+    }
+
+    /**
+     * @return an iterator over the permutations of 0 .. n - 1 with ranks in [from, to), in one reused buffer
+     */
+    public static Iterator<int[]> iterator(int n, BigInteger from, BigInteger to) {
+        RangeSpliterator range = new RangeSpliterator(n, from, count(n, from, to));
+        return new Iterator<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return range._remaining > 0;
+            }
+
+            @Override
+            public int[] next() {
+                if (!range.tryAdvance(permutation -> { })) {
+                    throw new NoSuchElementException();
+                }
+                return range._buffer;
+            }
+        };
+    }
+
+    /**
+     * @return a spliterator over the permutations of 0 .. n - 1 with ranks in [from, to), which splits at the middle
+     *     rank
+     */
+    public static Spliterator<int[]> spliterator(int n, long from, long to) {
+        return spliterator(n, BigInteger.valueOf(from), BigInteger.valueOf(to));
+    }
+
+    /**
+     * @return a spliterator over the permutations of 0 .. n - 1 with ranks in [from, to), which splits at the middle
+     *     rank
+     */
+    public static Spliterator<int[]> spliterator(int n, BigInteger from, BigInteger to) {
+        return new RangeSpliterator(n, from, count(n, from, to));
+    }
+
+    /**
+     * @return a stream of the permutations of 0 .. n - 1 with ranks in [from, to), each a buffer reused for the next
+     */
+    public static Stream<int[]> stream(int n, long from, long to, boolean parallel) {
+        return StreamSupport.stream(spliterator(n, from, to), parallel);
+    }
+
+    /**
+     * @return n! as a BigInteger
+     */
+    public static BigInteger bigFactorial(int n) {
+        if (n <= Permutations.MAX_LONG_FACTORIAL) {
+            return BigInteger.valueOf(Permutations.factorial(n));
+        }
+        BigInteger factorial = BigInteger.valueOf(Permutations.factorial(Permutations.MAX_LONG_FACTORIAL));
+        for (int i = Permutations.MAX_LONG_FACTORIAL + 1; i <= n; i++) {
+            factorial = factorial.multiply(BigInteger.valueOf(i));
+        }
+        return factorial;
+    }
+
+    /**
+     * @return the Lehmer code of a permutation of 0 .. n - 1, checking that it is one
+     */
+    private static int[] lehmerCode(int[] permutation) {
+        int n = permutation.length;
+        // placed[k] counts the elements placed so far in the range of Fenwick node k
+        int[] placed = new int[n + 1];
+        boolean[] seen = new boolean[n];
+        int[] code = new int[n];
+        for (int i = 0; i < n; i++) {
+            int value = permutation[i];
+            if (value < 0 || value >= n || seen[value]) {
+                throw new IllegalArgumentException("Not a permutation of 0 .. " + (n - 1) + ", " + value + " at " + i);
+            }
+            seen[value] = true;
+
+            int smallerPlaced = 0;
+            for (int k = value; k > 0; k -= k & -k) {
+                smallerPlaced += placed[k];
+            }
+            code[i] = value - smallerPlaced;
+            for (int k = value + 1; k <= n; k += k & -k) {
+                placed[k]++;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * @return the permutation whose Lehmer code is code
+     */
+    private static int[] fromLehmerCode(int[] code) {
+        int n = code.length;
+        // unplaced[k] counts the unplaced elements in the range of Fenwick node k, all of them to begin with
+        int[] unplaced = new int[n + 1];
+        for (int k = 1; k <= n; k++) {
+            unplaced[k] = k & -k;
+        }
+        int top = Integer.highestOneBit(Math.max(1, n));
+
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            // descend the tree to the element with code[i] unplaced elements below it
+            int position = 0;
+            int remaining = code[i];
+            for (int step = top; step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= n && unplaced[next] <= remaining) {
+                    position = next;
+                    remaining -= unplaced[next];
+                }
+            }
+            permutation[i] = position;
+            for (int k = position + 1; k <= n; k += k & -k) {
+                unplaced[k]--;
+            }
+        }
+        return permutation;
+    }
+
+    private static long count(int n, BigInteger from, BigInteger to) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        if (from.signum() < 0 || from.compareTo(to) > 0 || to.compareTo(bigFactorial(n)) > 0) {
+            throw new IllegalArgumentException("Invalid range of ranks for " + n + " elements: [" + from + ", " + to
+                    + ")");
+        }
+        BigInteger count = to.subtract(from);
+        if (count.bitLength() >= Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.MAX_VALUE + " permutations per range: " + count);
+        }
+        return count.longValue();
+    }
+
+    /**
+     * The permutations with ranks [_from, _from + _remaining), unranking the first on the first advance.
+     */
+    private static class RangeSpliterator implements Spliterator<int[]> {
+        private final int _n;
+        private BigInteger _from;
+        private long _remaining;
+        private int[] _buffer;
+
+        RangeSpliterator(int n, BigInteger from, long remaining) {
+            _n = n;
+            _from = from;
+            _remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            if (_remaining == 0) {
+                return false;
+            }
+            if (_buffer == null) {
+                _buffer = unrank(_from, _n);
+            } else {
+                Permutations.nextPermutation(_buffer);
+            }
+            _remaining--;
+            action.accept(_buffer);
+            return true;
+        }
+
+        @Override
+        public Spliterator<int[]> trySplit() {
+            if (_buffer != null || _remaining < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            long half = _remaining / 2;
+            RangeSpliterator prefix = new RangeSpliterator(_n, _from, half);
+            _from = _from.add(BigInteger.valueOf(half));
+            _remaining -= half;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return _remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
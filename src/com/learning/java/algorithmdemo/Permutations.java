@@ -0,0 +1,376 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterative generators of the permutations of 0 .. n - 1, for callers which need to consume each permutation rather
+ * than count them as {@link PrintPermutations#findPermutations(char[], int, int)} does. A permutation of any n items
+ * is the items taken in the order of the indexes.
+ *
+ * Heap's algorithm reaches each permutation from the last by one swap. Lexicographic order reaches it by the next
+ * permutation step: find the last ascent, swap its first element with the smallest larger element after it, and
+ * reverse the tail. Neither allocates after it starts. Every permutation is written into one buffer, which is what
+ * each call hands back, so a caller must copy a permutation to keep it past the next one.
+ *
+ * For parallel streams the spliterator covers the permutations with a fixed prefix and a range of choices for the
+ * next position. It splits the range in half, and once a single choice is left, fixes it as part of the prefix and
+ * splits the choices for the position after it. Each half gets its own buffer, and in lexicographic order the halves
+ * stay in order.
+ */
+public class Permutations {
+    // spliterators over fewer permutations than this are not split
+    private static final long MIN_SPLIT_SIZE = 1 << 10;
+    // the largest n whose n! fits in a long
+    public static final int MAX_LONG_FACTORIAL = 20;
+
+    public enum Order {
+        HEAP,
+        LEXICOGRAPHIC
+    }
+
+    /**
+     * @param n the number of items
+     * @param order the order to generate the permutations in
+     * @return an iterator over the n! permutations of 0 .. n - 1, handing back the same buffer each time
+     */
+    public static Iterator<int[]> iterator(int n, Order order) {
+        int[] buffer = identity(n);
+        return order == Order.HEAP ? new HeapIterator(buffer) : new LexicographicIterator(buffer, 0);
+    }
+
+    /**
+     * @param n the number of items
+     * @param order the order to generate the permutations in
+     * @return a spliterator over the n! permutations of 0 .. n - 1, which splits by prefix
+     */
+    public static Spliterator<int[]> spliterator(int n, Order order) {
+        return new PrefixSpliterator(identity(n), order);
+    }
+
+    /**
+     * @param n the number of items
+     * @param order the order to generate the permutations in
+     * @param parallel true for a parallel stream
+     * @return a stream of the n! permutations of 0 .. n - 1, each a buffer reused for the next
+     */
+    public static Stream<int[]> stream(int n, Order order, boolean parallel) {
+        return StreamSupport.stream(spliterator(n, order), parallel);
+    }
+
+    /**
+     * Calls action with every permutation of 0 .. n - 1 in turn, in the same buffer.
+     */
+    public static void forEach(int n, Order order, Consumer<int[]> action) {
+        iterator(n, order).forEachRemaining(action);
+    }
+
+    /**
+     * Rearranges a into the next permutation in lexicographic order. Equal elements are not told apart, so from sorted
+     * order this visits each distinct arrangement once.
+     *
+     * @return false, leaving a sorted, if a was the last permutation
+     */
+    public static boolean nextPermutation(int[] a) {
+        return nextPermutation(a, 0, a.length);
+    }
+
+    /**
+     * The next permutation of a[from, to), as in {@link #nextPermutation(int[])}.
+     */
+    static boolean nextPermutation(int[] a, int from, int to) {
+        // the last ascent, a[i] < a[i + 1]
+        int i = to - 2;
+        while (i >= from && a[i] >= a[i + 1]) {
+            i--;
+        }
+        if (i < from) {
+            reverse(a, from, to - 1);
+            return false;
+        }
+
+        // the last element larger than a[i], the smallest such since the tail descends
+        int j = to - 1;
+        while (a[j] <= a[i]) {
+            j--;
+        }
+        swap(a, i, j);
+        reverse(a, i + 1, to - 1);
+        return true;
+    }
+
+    /**
+     * @return n!
+     * @throws ArithmeticException if n! does not fit in a long
+     */
+    public static long factorial(int n) {
+        if (n < 0 || n > MAX_LONG_FACTORIAL) {
+            throw new ArithmeticException(n + "! does not fit in a long");
+        }
+        long factorial = 1;
+        for (int i = 2; i <= n; i++) {
+            factorial *= i;
+        }
+        return factorial;
+    }
+
+    private static int[] identity(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        int[] buffer = new int[n];
+        for (int i = 0; i < n; i++) {
+            buffer[i] = i;
+        }
+        return buffer;
+    }
+
+    static void swap(int[] a, int i, int j) {
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    static void reverse(int[] a, int i, int j) {
+        while (i < j) {
+            swap(a, i++, j--);
+        }
+    }
+
+    /**
+     * The iterative form of Heap's algorithm over buffer[from, length), where counters[k] counts the swaps made at
+     * level k since the levels below it last finished, which is what the recursive form keeps on its stack.
+     */
+    static class HeapState {
+        private final int[] _buffer;
+        private final int _from;
+        private final int[] _counters;
+        private int _level;
+
+        HeapState(int[] buffer, int from) {
+            _buffer = buffer;
+            _from = from;
+            _counters = new int[buffer.length - from];
+            reset();
+        }
+
+        /**
+         * Starts over, from the arrangement now in the buffer.
+         */
+        void reset() {
+            Arrays.fill(_counters, 0);
+            _level = 1;
+        }
+
+        /**
+         * Makes the one swap to the next permutation.
+         *
+         * @return false when every permutation has been visited
+         */
+        boolean advance() {
+            while (_level < _counters.length) {
+                if (_counters[_level] < _level) {
+                    int other = (_level & 1) == 0 ? 0 : _counters[_level];
+                    swap(_buffer, _from + other, _from + _level);
+                    _counters[_level]++;
+                    _level = 1;
+                    return true;
+                }
+                _counters[_level] = 0;
+                _level++;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * An iterator which advances the buffer lazily, on the call after the one handing it back.
+     */
+    private abstract static class BufferIterator implements Iterator<int[]> {
+        final int[] _buffer;
+        private boolean _first = true;
+        private boolean _ready;
+        private boolean _hasNext;
+
+        BufferIterator(int[] buffer) {
+            _buffer = buffer;
+        }
+
+        abstract boolean advance();
+
+        @Override
+        public boolean hasNext() {
+            if (!_ready) {
+                _hasNext = _first || advance();
+                _first = false;
+                _ready = true;
+            }
+            return _hasNext;
+        }
+
+        @Override
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _ready = false;
+            return _buffer;
+        }
+    }
+
+    private static class HeapIterator extends BufferIterator {
+        private final HeapState _state;
+
+        HeapIterator(int[] buffer) {
+            super(buffer);
+            _state = new HeapState(buffer, 0);
+        }
+
+        @Override
+        boolean advance() {
+            return _state.advance();
+        }
+    }
+
+    static class LexicographicIterator extends BufferIterator {
+        private final int _from;
+
+        /**
+         * Visits the arrangements of buffer[from, length) from the one in the buffer, which is sorted to start from the
+         * first.
+         */
+        LexicographicIterator(int[] buffer, int from) {
+            super(buffer);
+            _from = from;
+        }
+
+        @Override
+        boolean advance() {
+            return nextPermutation(_buffer, _from, _buffer.length);
+        }
+    }
+
+    /**
+     * The permutations of buffer[0, length) beginning with buffer[0, depth), followed by one of the choices
+     * [_low, _high) of the remaining elements, in sorted order.
+     */
+    private static class PrefixSpliterator implements Spliterator<int[]> {
+        private final Order _order;
+        private final int[] _buffer;
+        private int _depth;
+        // the elements not in the prefix, sorted
+        private int[] _remaining;
+        private int _low;
+        private int _high;
+        // true once the permutations after choice _low have started
+        private boolean _inChoice;
+        // true for the single empty permutation
+        private boolean _empty;
+        private HeapState _heap;
+
+        PrefixSpliterator(int[] sorted, Order order) {
+            this(order, sorted.clone(), 0, sorted.clone(), 0, sorted.length);
+            _empty = sorted.length == 0;
+        }
+
+        private PrefixSpliterator(Order order, int[] buffer, int depth, int[] remaining, int low, int high) {
+            _order = order;
+            _buffer = buffer;
+            _depth = depth;
+            _remaining = remaining;
+            _low = low;
+            _high = high;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            if (_empty) {
+                _empty = false;
+                action.accept(_buffer);
+                return true;
+            }
+            if (_inChoice) {
+                boolean more = _order == Order.HEAP ? _heap.advance()
+                        : nextPermutation(_buffer, _depth + 1, _buffer.length);
+                if (more) {
+                    action.accept(_buffer);
+                    return true;
+                }
+                _inChoice = false;
+                _low++;
+            }
+            if (_low >= _high) {
+                return false;
+            }
+
+            choose(_low);
+            if (_order == Order.HEAP) {
+                if (_heap == null) {
+                    _heap = new HeapState(_buffer, _depth + 1);
+                }
+                _heap.reset();
+            }
+            _inChoice = true;
+            action.accept(_buffer);
+            return true;
+        }
+
+        /**
+         * Puts choice i of the remaining elements after the prefix, and the others after it in sorted order.
+         */
+        private void choose(int i) {
+            _buffer[_depth] = _remaining[i];
+            System.arraycopy(_remaining, 0, _buffer, _depth + 1, i);
+            System.arraycopy(_remaining, i + 1, _buffer, _depth + 1 + i, _remaining.length - i - 1);
+        }
+
+        @Override
+        public Spliterator<int[]> trySplit() {
+            if (_inChoice || _empty || estimateSize() < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            if (_high - _low == 1) {
+                // a single choice, fix it and split the choices for the next position
+                if (_remaining.length < 3) {
+                    return null;
+                }
+                int[] remaining = new int[_remaining.length - 1];
+                System.arraycopy(_remaining, 0, remaining, 0, _low);
+                System.arraycopy(_remaining, _low + 1, remaining, _low, remaining.length - _low);
+                _buffer[_depth++] = _remaining[_low];
+                _remaining = remaining;
+                _low = 0;
+                _high = remaining.length;
+            }
+
+            int mid = _low + (_high - _low) / 2;
+            PrefixSpliterator prefix = new PrefixSpliterator(_order, _buffer.clone(), _depth, _remaining, _low, mid);
+            _low = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            if (_empty) {
+                return 1;
+            }
+            int rest = _remaining.length - 1;
+            if (rest > MAX_LONG_FACTORIAL) {
+                return Long.MAX_VALUE;
+            }
+            long choices = _high - _low;
+            long each = factorial(Math.max(0, rest));
+            return choices > Long.MAX_VALUE / each ? Long.MAX_VALUE : choices * each;
+        }
+
+        @Override
+        public int characteristics() {
+            return (_order == Order.LEXICOGRAPHIC ? ORDERED : 0) | NONNULL;
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.learning.java.algorithmdemo;
 
 import com.learning.java.utils.SpaceTimeComplexity;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 
 /**
@@ -9,6 +15,20 @@ import com.learning.java.utils.SpaceTimeComplexity;
  * Permutations of an array of characters
  */
 public class PrintPermutations implements AlgorithmDemo {
+    // the number of characters the iterator and stream runs permute
+    private static final int ITERATOR_SIZE = 12;
+
+    // the permutations of this many elements have ranks which just fit in a long
+    private static final int RANK_SIZE = 20;
+    // the number of elements for BigInteger ranks
+    private static final int BIG_RANK_SIZE = 100;
+    // the number of permutations in the sharded range
+    private static final long SHARD_RANGE = 50_000_000;
+
+    // a multiset with many repeated characters, and the size of its k-permutations and combinations
+    private static final String MULTISET = "mississippiohio";
+    private static final int MULTISET_K = 8;
+
     // records different aspects of the execution.
     private final SpaceTimeComplexity _spaceTimeComplexity = new SpaceTimeComplexity();
 
@@ -76,6 +96,132 @@ public class PrintPermutations implements AlgorithmDemo {
             _spaceTimeComplexity.printStats();
             _spaceTimeComplexity.reset();
         }
+
+        runIterators(chars, ITERATOR_SIZE);
+        runRanks();
+        runMultiset(MULTISET, MULTISET_K);
+    }
+
+    /**
+     * Generates only the distinct permutations of a string with repeated characters with
+     * {@link MultisetArrangements}, and its distinct k-permutations and k-combinations, checking each count against
+     * the closed form.
+     */
+    private void runMultiset(String multiset, int k) {
+        int[] elements = multiset.chars().toArray();
+        System.out.println("Distinct permutations of " + multiset + ", " + PermutationRank.bigFactorial(elements.length)
+                + " with repeats");
+        runMultiset(elements, elements.length, MultisetArrangements.Selection.PERMUTATION);
+        System.out.println("Distinct " + k + "-permutations of " + multiset);
+        runMultiset(elements, k, MultisetArrangements.Selection.PERMUTATION);
+        System.out.println("Distinct " + k + "-combinations of " + multiset);
+        runMultiset(elements, k, MultisetArrangements.Selection.COMBINATION);
+    }
+
+    private void runMultiset(int[] elements, int k, MultisetArrangements.Selection selection) {
+        _spaceTimeComplexity.timeStart();
+        BigInteger count = MultisetArrangements.count(elements, k, selection);
+        long generated = MultisetArrangements.stream(elements, k, selection, true).count();
+        _spaceTimeComplexity.timeStop();
+        System.out.println("Closed form: " + count + ", generated in parallel: " + generated);
+        _spaceTimeComplexity.setTotalSize(generated);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+    }
+
+    /**
+     * Ranks and unranks random permutations with {@link PermutationRank}, then enumerates a range of ranks deep into
+     * the permutations of {@link #RANK_SIZE} elements as a parallel stream, and again in two halves as a job resuming
+     * from a checkpoint would.
+     */
+    private void runRanks() {
+        for (int n : new int[]{RANK_SIZE, BIG_RANK_SIZE}) {
+            List<Integer> shuffled = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                shuffled.add(i);
+            }
+            Collections.shuffle(shuffled);
+            int[] permutation = shuffled.stream().mapToInt(Integer::intValue).toArray();
+
+            _spaceTimeComplexity.timeStart();
+            BigInteger rank = PermutationRank.bigRank(permutation);
+            int[] unranked = PermutationRank.unrank(rank, n);
+            _spaceTimeComplexity.timeStop();
+            System.out.println("Rank of a random permutation of " + n + " elements: " + rank + ", unranks to it: "
+                    + Arrays.equals(permutation, unranked));
+            _spaceTimeComplexity.printStats();
+            _spaceTimeComplexity.reset();
+        }
+
+        long from = Permutations.factorial(RANK_SIZE) / 2;
+        long to = from + SHARD_RANGE;
+        System.out.println("Parallel stream of ranks [" + from + ", " + to + ") of " + RANK_SIZE + " elements");
+        _spaceTimeComplexity.timeStart();
+        long ascending = PermutationRank.stream(RANK_SIZE, from, to, true)
+                .filter(indexes -> indexes[0] < indexes[RANK_SIZE - 1])
+                .count();
+        _spaceTimeComplexity.timeStop();
+        System.out.println("First before last: " + ascending);
+        _spaceTimeComplexity.setTotalSize(SHARD_RANGE);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+
+        System.out.println("Same range, stopped half way and resumed from the checkpoint rank");
+        _spaceTimeComplexity.timeStart();
+        ascending = 0;
+        long checkpoint = 0;
+        for (Iterator<int[]> it = PermutationRank.iterator(RANK_SIZE, from, from + SHARD_RANGE / 2); it.hasNext(); ) {
+            int[] indexes = it.next();
+            ascending += indexes[0] < indexes[RANK_SIZE - 1] ? 1 : 0;
+            if (!it.hasNext()) {
+                checkpoint = PermutationRank.rank(indexes);
+            }
+        }
+        for (Iterator<int[]> it = PermutationRank.iterator(RANK_SIZE, checkpoint + 1, to); it.hasNext(); ) {
+            int[] indexes = it.next();
+            ascending += indexes[0] < indexes[RANK_SIZE - 1] ? 1 : 0;
+        }
+        _spaceTimeComplexity.timeStop();
+        System.out.println("Checkpoint: " + checkpoint + ", first before last: " + ascending);
+        _spaceTimeComplexity.setTotalSize(SHARD_RANGE);
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
+    }
+
+    /**
+     * Consumes every permutation of the first n characters with the {@link Permutations} iterators, one after the
+     * other, and then as a parallel stream, counting those in which the first character sorts before the last.
+     */
+    private void runIterators(char[] chars, int n) {
+        char[] permutation = new char[n];
+        for (Permutations.Order order : Permutations.Order.values()) {
+            System.out.println(order + " iterator for {" + new String(chars, 0, n) + "}");
+            long ascending = 0;
+            _spaceTimeComplexity.timeStart();
+            for (Iterator<int[]> it = Permutations.iterator(n, order); it.hasNext(); ) {
+                int[] indexes = it.next();
+                for (int i = 0; i < n; i++) {
+                    permutation[i] = chars[indexes[i]];
+                }
+                ascending += permutation[0] < permutation[n - 1] ? 1 : 0;
+                _spaceTimeComplexity.addAnswer();
+            }
+            _spaceTimeComplexity.timeStop();
+            System.out.println("First before last: " + ascending);
+            _spaceTimeComplexity.printStats();
+            _spaceTimeComplexity.reset();
+        }
+
+        System.out.println("Parallel stream for {" + new String(chars, 0, n) + "}");
+        _spaceTimeComplexity.timeStart();
+        long ascending = Permutations.stream(n, Permutations.Order.LEXICOGRAPHIC, true)
+                .filter(indexes -> chars[indexes[0]] < chars[indexes[n - 1]])
+                .count();
+        _spaceTimeComplexity.timeStop();
+        System.out.println("First before last: " + ascending);
+        _spaceTimeComplexity.setTotalSize(Permutations.factorial(n));
+        _spaceTimeComplexity.printStats();
+        _spaceTimeComplexity.reset();
     }
 
     /*
@@ -0,0 +1,326 @@
+package com.learning.java.algorithmdemo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The longest run of a value x immediately followed by a value y, as found by
+ * {@link LongestContiguousSequenceFollowedBy}, over inputs too large to scan on one thread or to hold in memory:
+ * int arrays, memory mapped files and byte streams.
+ *
+ * A chunk of the input is reduced to a summary which is all a neighbouring chunk needs to know about it: its length,
+ * the run of x it starts with and whether y follows that run inside the chunk, the run of x it ends with, and the
+ * longest run inside it which starts after some other value and is followed by y. Two adjacent summaries combine into
+ * the summary of both chunks: the run ending the first chunk and the run starting the second join into one, and if
+ * y follows it in the second chunk it competes for the longest. Combining is associative, so chunks can be scanned in
+ * any grouping, in parallel, or one buffer at a time from a stream, and all give the same answer. The run at the
+ * very start of the input has nothing before it, so it only counts once the whole input is summarized.
+ *
+ * Runs are at least one x long. Of runs with the same length, the one starting first is the answer.
+ */
+public class RunSummary {
+    // array elements per scan task
+    private static final int ARRAY_THRESHOLD = 1 << 16;
+    // bytes mapped and scanned per file task
+    private static final long FILE_THRESHOLD = 1 << 24;
+    // bytes read at a time from a stream
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private static final RunSummary EMPTY = new RunSummary(0, 0, false, 0, 0, -1);
+
+    // the number of elements summarized
+    public final long length;
+    // the run of x the chunk starts with, and whether y follows it within the chunk
+    public final long prefixRun;
+    public final boolean prefixFollowed;
+    // the run of x the chunk ends with
+    public final long suffixRun;
+    // the longest run, followed by y, which starts after another value in the chunk, and its offset in the chunk
+    public final long bestRun;
+    public final long bestStart;
+
+    RunSummary(long length, long prefixRun, boolean prefixFollowed, long suffixRun, long bestRun, long bestStart) {
+        this.length = length;
+        this.prefixRun = prefixRun;
+        this.prefixFollowed = prefixFollowed;
+        this.suffixRun = suffixRun;
+        this.bestRun = bestRun;
+        this.bestStart = bestStart;
+    }
+
+    /**
+     * @return true if the chunk ends in a run of x, which the next chunk may carry on
+     */
+    public boolean endsInRun() {
+        return suffixRun > 0;
+    }
+
+    /**
+     * @return the length of the longest run of x followed by y, treating the chunk as the whole input
+     */
+    public long longest() {
+        return startsWithAnswer() ? prefixRun : bestRun;
+    }
+
+    /**
+     * @return the offset of the longest run of x followed by y, or -1 if there is none, treating the chunk as the whole
+     *     input
+     */
+    public long start() {
+        return startsWithAnswer() ? 0 : bestStart;
+    }
+
+    private boolean startsWithAnswer() {
+        return prefixFollowed && prefixRun > 0 && prefixRun >= bestRun;
+    }
+
+    /**
+     * The summary of two adjacent chunks.
+     *
+     * @param first the summary of the earlier chunk
+     * @param second the summary of the chunk right after it
+     * @return the summary of both
+     */
+    public static RunSummary combine(RunSummary first, RunSummary second) {
+        boolean firstAllRun = first.prefixRun == first.length;
+        boolean secondAllRun = second.prefixRun == second.length;
+
+        long bestRun = first.bestRun;
+        long bestStart = first.bestStart;
+        if (second.bestRun > bestRun) {
+            bestRun = second.bestRun;
+            bestStart = first.length + second.bestStart;
+        }
+        // the run across the boundary, if it starts after another value in the first chunk
+        long joined = first.suffixRun + second.prefixRun;
+        if (!firstAllRun && second.prefixFollowed && joined > 0) {
+            long joinedStart = first.length - first.suffixRun;
+            if (joined > bestRun || (joined == bestRun && joinedStart < bestStart)) {
+                bestRun = joined;
+                bestStart = joinedStart;
+            }
+        }
+
+        return new RunSummary(first.length + second.length,
+                firstAllRun ? first.length + second.prefixRun : first.prefixRun,
+                firstAllRun ? second.prefixFollowed : first.prefixFollowed,
+                secondAllRun ? first.suffixRun + second.length : second.suffixRun,
+                bestRun,
+                bestStart);
+    }
+
+    /**
+     * Summarizes values[from, to) on this thread.
+     */
+    public static RunSummary scan(int[] values, int from, int to, int of, int followedBy) {
+        checkValues(of, followedBy);
+        int i = from;
+        while (i < to && values[i] == of) {
+            i++;
+        }
+        long prefixRun = i - from;
+        if (i == to) {
+            return new RunSummary(to - from, prefixRun, false, prefixRun, 0, -1);
+        }
+        boolean prefixFollowed = values[i] == followedBy;
+
+        long bestRun = 0;
+        long bestStart = -1;
+        // the start of the run of x we are in, -1 when not in one
+        int runStart = -1;
+        for (; i < to; i++) {
+            int value = values[i];
+            if (value == of) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+            } else {
+                if (value == followedBy && runStart >= 0 && i - runStart > bestRun) {
+                    bestRun = i - runStart;
+                    bestStart = runStart - from;
+                }
+                runStart = -1;
+            }
+        }
+        return new RunSummary(to - from, prefixRun, prefixFollowed, runStart < 0 ? 0 : to - runStart, bestRun,
+                bestStart);
+    }
+
+    /**
+     * Summarizes buffer[from, to), by absolute index, on this thread.
+     */
+    public static RunSummary scan(ByteBuffer buffer, int from, int to, byte of, byte followedBy) {
+        checkValues(of, followedBy);
+        int i = from;
+        while (i < to && buffer.get(i) == of) {
+            i++;
+        }
+        long prefixRun = i - from;
+        if (i == to) {
+            return new RunSummary(to - from, prefixRun, false, prefixRun, 0, -1);
+        }
+        boolean prefixFollowed = buffer.get(i) == followedBy;
+
+        long bestRun = 0;
+        long bestStart = -1;
+        int runStart = -1;
+        for (; i < to; i++) {
+            byte value = buffer.get(i);
+            if (value == of) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+            } else {
+                if (value == followedBy && runStart >= 0 && i - runStart > bestRun) {
+                    bestRun = i - runStart;
+                    bestStart = runStart - from;
+                }
+                runStart = -1;
+            }
+        }
+        return new RunSummary(to - from, prefixRun, prefixFollowed, runStart < 0 ? 0 : to - runStart, bestRun,
+                bestStart);
+    }
+
+    /**
+     * Summarizes an array in chunks across the pool.
+     */
+    public static RunSummary scan(int[] values, int of, int followedBy) {
+        checkValues(of, followedBy);
+        return POOL.invoke(new ArrayTask(values, 0, values.length, of, followedBy));
+    }
+
+    /**
+     * Summarizes a file, mapping chunks of it and scanning them across the pool.
+     */
+    public static RunSummary scan(Path path, byte of, byte followedBy) {
+        checkValues(of, followedBy);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return POOL.invoke(new FileTask(channel, 0, channel.size(), of, followedBy));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not scan " + path, ex);
+        }
+    }
+
+    /**
+     * Summarizes a channel one buffer at a time, as it is read.
+     */
+    public static RunSummary scan(ReadableByteChannel channel, byte of, byte followedBy) {
+        checkValues(of, followedBy);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE);
+        RunSummary summary = EMPTY;
+        try {
+            while (channel.read(buffer) >= 0) {
+                if (buffer.position() == buffer.capacity()) {
+                    summary = combine(summary, scan(buffer, 0, buffer.position(), of, followedBy));
+                    buffer.clear();
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the channel", ex);
+        }
+        return combine(summary, scan(buffer, 0, buffer.position(), of, followedBy));
+    }
+
+    /**
+     * Summarizes a stream one buffer at a time, as it is read.
+     */
+    public static RunSummary scan(InputStream in, byte of, byte followedBy) {
+        checkValues(of, followedBy);
+        byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        RunSummary summary = EMPTY;
+        try {
+            for (int read = in.read(bytes); read >= 0; read = in.read(bytes)) {
+                summary = combine(summary, scan(buffer, 0, read, of, followedBy));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the stream", ex);
+        }
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return "RunSummary{length=" + length + ", prefixRun=" + prefixRun + ", prefixFollowed=" + prefixFollowed
+                + ", suffixRun=" + suffixRun + ", bestRun=" + bestRun + ", bestStart=" + bestStart + "}";
+    }
+
+    private static void checkValues(int of, int followedBy) {
+        if (of == followedBy) {
+            throw new IllegalArgumentException("The run and the value after it must differ: " + of);
+        }
+    }
+
+    private static class ArrayTask extends RecursiveTask<RunSummary> {
+        private final int[] _values;
+        private final int _from;
+        private final int _to;
+        private final int _of;
+        private final int _followedBy;
+
+        ArrayTask(int[] values, int from, int to, int of, int followedBy) {
+            _values = values;
+            _from = from;
+            _to = to;
+            _of = of;
+            _followedBy = followedBy;
+        }
+
+        @Override
+        protected RunSummary compute() {
+            if (_to - _from <= ARRAY_THRESHOLD) {
+                return scan(_values, _from, _to, _of, _followedBy);
+            }
+            int mid = _from + (_to - _from) / 2;
+            ArrayTask first = new ArrayTask(_values, _from, mid, _of, _followedBy);
+            ArrayTask second = new ArrayTask(_values, mid, _to, _of, _followedBy);
+            invokeAll(first, second);
+            return combine(first.join(), second.join());
+        }
+    }
+
+    private static class FileTask extends RecursiveTask<RunSummary> {
+        private final FileChannel _channel;
+        private final long _from;
+        private final long _to;
+        private final byte _of;
+        private final byte _followedBy;
+
+        FileTask(FileChannel channel, long from, long to, byte of, byte followedBy) {
+            _channel = channel;
+            _from = from;
+            _to = to;
+            _of = of;
+            _followedBy = followedBy;
+        }
+
+        @Override
+        protected RunSummary compute() {
+            if (_to - _from <= FILE_THRESHOLD) {
+                try {
+                    MappedByteBuffer buffer = _channel.map(FileChannel.MapMode.READ_ONLY, _from, _to - _from);
+                    return scan(buffer, 0, (int) (_to - _from), _of, _followedBy);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Could not map bytes " + _from + " to " + _to, ex);
+                }
+            }
+            long mid = _from + (_to - _from) / 2;
+            FileTask first = new FileTask(_channel, _from, mid, _of, _followedBy);
+            FileTask second = new FileTask(_channel, mid, _to, _of, _followedBy);
+            invokeAll(first, second);
+            return combine(first.join(), second.join());
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Which sums some sub-multiset of a changing multiset of values can reach, kept up to date as values come and go,
+ * for serving many targets where {@link FindEqualPartitions#equalSumDynamic(int[], int)} would rebuild its table for
+ * each.
+ *
+ * A reachable flag per sum cannot be undone, since other subsets may still reach a sum when a value leaves, so the
+ * index counts the subsets reaching each sum instead (the counting knapsack). Adding v makes every subset reaching
+ * s - v also reach s, counts[s] += counts[s - v], from the top sum down. Removing v undoes exactly that,
+ * counts[s] -= counts[s - v], from the bottom sum up. Both are one O(maxSum) pass, and a sum is reachable when its
+ * count is not zero, an O(1) lookup.
+ *
+ * Counts grow as 2^n, so they are kept modulo the prime 2^61 - 1. A count which is a non zero multiple of the prime
+ * would read as unreachable, about one chance in 2^61 per sum. Zeros change no sums and are only counted. Values
+ * above maxSum reach no sum of interest, and are only counted so that they can be removed again.
+ *
+ * Batches net out the values both added and removed before touching the counts, and large additions are spread over
+ * the pool, each task adding into a second buffer so that no task reads counts another has already updated.
+ */
+public class SubsetSumIndex {
+  // 2^61 - 1, so the sum of two counts fits in a long
+  private static final long PRIME = (1L << 61) - 1;
+  // indexes with at least this many sums add in parallel
+  static final int PARALLEL_THRESHOLD_SUMS = 1 << 20;
+  // sums per parallel add task
+  private static final int TASK_SUMS = 1 << 16;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  private final int _maxSum;
+  // _counts[s] is the number of sub-multisets, by position, summing to s, modulo PRIME
+  private long[] _counts;
+  // the buffer parallel additions write into, swapped with _counts after each
+  private long[] _next;
+  // how many of each value up to maxSum are in the multiset
+  private final int[] _multiplicity;
+  // how many of each value above maxSum are in the multiset
+  private final Map<Integer, Integer> _oversized = new HashMap<>();
+  private long _size;
+
+  /**
+   * @param maxSum the largest sum to answer queries for
+   */
+  public SubsetSumIndex(int maxSum) {
+    if (maxSum < 0) {
+      throw new IllegalArgumentException("Sum must not be negative: " + maxSum);
+    }
+    _maxSum = maxSum;
+    _counts = new long[maxSum + 1];
+    _next = maxSum + 1 >= PARALLEL_THRESHOLD_SUMS ? new long[maxSum + 1] : null;
+    _multiplicity = new int[maxSum + 1];
+    // the empty subset
+    _counts[0] = 1;
+  }
+
+  /**
+   * Adds one value to the multiset, O(maxSum).
+   */
+  public void add(int value) {
+    checkValue(value);
+    if (value > _maxSum) {
+      _oversized.merge(value, 1, Integer::sum);
+    } else {
+      _multiplicity[value]++;
+      if (value > 0) {
+        addCounts(value);
+      }
+    }
+    _size++;
+  }
+
+  /**
+   * Removes one value from the multiset, O(maxSum).
+   *
+   * @throws IllegalArgumentException if the value is not in the multiset
+   */
+  public void remove(int value) {
+    checkValue(value);
+    if (value > _maxSum) {
+      Integer count = _oversized.get(value);
+      if (count == null) {
+        throw new IllegalArgumentException("Value not in the index: " + value);
+      }
+      if (count == 1) {
+        _oversized.remove(value);
+      } else {
+        _oversized.put(value, count - 1);
+      }
+    } else {
+      if (_multiplicity[value] == 0) {
+        throw new IllegalArgumentException("Value not in the index: " + value);
+      }
+      _multiplicity[value]--;
+      if (value > 0) {
+        removeCounts(value);
+      }
+    }
+    _size--;
+  }
+
+  /**
+   * Applies a batch of additions and removals. A value both added and removed in the batch costs nothing, and the
+   * batch is checked before any change, so a removal of a value not in the multiset leaves the index as it was.
+   *
+   * @param added the values to add
+   * @param removed the values to remove, from the multiset with added included
+   * @throws IllegalArgumentException if a removed value is not in the multiset
+   */
+  public void update(int[] added, int[] removed) {
+    int[] adds = added.clone();
+    int[] removes = removed.clone();
+    Arrays.sort(adds);
+    Arrays.sort(removes);
+
+    // net out equal values, keeping what remains at the front of each array
+    int addCount = 0;
+    int removeCount = 0;
+    int i = 0;
+    int j = 0;
+    while (i < adds.length || j < removes.length) {
+      if (j == removes.length || (i < adds.length && adds[i] < removes[j])) {
+        adds[addCount++] = adds[i++];
+      } else if (i == adds.length || removes[j] < adds[i]) {
+        removes[removeCount++] = removes[j++];
+      } else {
+        i++;
+        j++;
+      }
+    }
+
+    for (int k = 0; k < addCount; k++) {
+      checkValue(adds[k]);
+    }
+    for (int k = 0; k < removeCount; ) {
+      int value = removes[k];
+      int end = k;
+      while (end < removeCount && removes[end] == value) {
+        end++;
+      }
+      if (multiplicity(value) < end - k) {
+        throw new IllegalArgumentException("Value not in the index: " + value);
+      }
+      k = end;
+    }
+
+    for (int k = 0; k < removeCount; k++) {
+      remove(removes[k]);
+    }
+    for (int k = 0; k < addCount; k++) {
+      add(adds[k]);
+    }
+  }
+
+  /**
+   * @return true if some sub-multiset sums to target, in O(1)
+   */
+  public boolean isReachable(int target) {
+    if (target < 0 || target > _maxSum) {
+      throw new IllegalArgumentException("Target outside the index, 0 to " + _maxSum + ": " + target);
+    }
+    return _counts[target] != 0;
+  }
+
+  /**
+   * @param targets the sums to look up
+   * @return whether each target is reachable
+   */
+  public boolean[] isReachable(int[] targets) {
+    boolean[] reachable = new boolean[targets.length];
+    for (int i = 0; i < targets.length; i++) {
+      reachable[i] = isReachable(targets[i]);
+    }
+    return reachable;
+  }
+
+  /**
+   * @return true if the multiset splits into two parts with equal sums, when its sum is at most 2 * maxSum
+   */
+  public boolean canPartition() {
+    long total = 0;
+    for (int value = 1; value <= _maxSum; value++) {
+      total += (long) value * _multiplicity[value];
+    }
+    for (Map.Entry<Integer, Integer> entry : _oversized.entrySet()) {
+      total += (long) entry.getKey() * entry.getValue();
+    }
+    if (total / 2 > _maxSum) {
+      throw new IllegalStateException("Half the sum " + total + " is above the index's maximum " + _maxSum);
+    }
+    return total % 2 == 0 && _counts[(int) (total / 2)] != 0;
+  }
+
+  /**
+   * @return the number of values in the multiset
+   */
+  public long size() {
+    return _size;
+  }
+
+  public int maxSum() {
+    return _maxSum;
+  }
+
+  private int multiplicity(int value) {
+    if (value > _maxSum) {
+      return _oversized.getOrDefault(value, 0);
+    }
+    return value < 0 ? 0 : _multiplicity[value];
+  }
+
+  private void addCounts(int value) {
+    if (_next == null) {
+      long[] counts = _counts;
+      for (int s = _maxSum; s >= value; s--) {
+        long sum = counts[s] + counts[s - value];
+        counts[s] = sum >= PRIME ? sum - PRIME : sum;
+      }
+    } else {
+      POOL.invoke(new AddTask(_counts, _next, value, 0, _maxSum + 1));
+      long[] swap = _counts;
+      _counts = _next;
+      _next = swap;
+    }
+  }
+
+  /**
+   * Each count depends on the already updated count value below it, so removal runs in order from the bottom.
+   */
+  private void removeCounts(int value) {
+    long[] counts = _counts;
+    for (int s = value; s <= _maxSum; s++) {
+      long difference = counts[s] - counts[s - value];
+      counts[s] = difference < 0 ? difference + PRIME : difference;
+    }
+  }
+
+  private static void checkValue(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Values must not be negative: " + value);
+    }
+  }
+
+  /**
+   * to[s] = from[s] + from[s - value] for the sums s in [fromSum, toSum).
+   */
+  private static class AddTask extends RecursiveAction {
+    private final long[] _from;
+    private final long[] _to;
+    private final int _value;
+    private final int _fromSum;
+    private final int _toSum;
+
+    AddTask(long[] from, long[] to, int value, int fromSum, int toSum) {
+      _from = from;
+      _to = to;
+      _value = value;
+      _fromSum = fromSum;
+      _toSum = toSum;
+    }
+
+    @Override
+    protected void compute() {
+      if (_toSum - _fromSum > TASK_SUMS) {
+        int mid = _fromSum + (_toSum - _fromSum) / 2;
+        invokeAll(new AddTask(_from, _to, _value, _fromSum, mid), new AddTask(_from, _to, _value, mid, _toSum));
+        return;
+      }
+      int split = Math.max(_fromSum, Math.min(_value, _toSum));
+      System.arraycopy(_from, _fromSum, _to, _fromSum, split - _fromSum);
+      for (int s = split; s < _toSum; s++) {
+        long sum = _from[s] + _from[s - _value];
+        _to[s] = sum >= PRIME ? sum - PRIME : sum;
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.learning.java.algorithmdemo;
+
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The length of the LCS computed in parallel over tiles of the LCS table.
+ *
+ * Cell (i, j) depends only on (i - 1, j), (i, j - 1) and (i - 1, j - 1), so a tile can run once the tile above it and
+ * the tile to its left are done, and all the tiles on one anti-diagonal can run at the same time. Rather than waiting
+ * for a whole diagonal, each tile counts its finished dependencies and is forked by whichever of them finishes last,
+ * so the wavefront advances as fast as the tiles finish.
+ *
+ * Tiles pass each other only their edges: each tile column keeps one row, the bottom row of the last tile computed in
+ * it, and each tile row keeps one column, so the whole table needs O(m + n) memory.
+ */
+public class WavefrontLcs {
+    // cells per side of a tile, the edges and the working row stay in the L1 cache
+    static final int TILE_SIZE = 1024;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final char[] _seq1;
+    private final char[] _seq2;
+    private final int _tileRows;
+    private final int _tileColumns;
+    // rows[j] is the bottom row of the last finished tile in tile column j, rows[j][0] is the cell left of it
+    private final int[][] _rows;
+    // columns[i] is the right column of the last finished tile in tile row i, columns[i][0] is the cell above it
+    private final int[][] _columns;
+    // the dependencies left before each tile can run, tile (i, j) at i * tileColumns + j
+    private final AtomicIntegerArray _pending;
+
+    private WavefrontLcs(char[] seq1, char[] seq2) {
+        _seq1 = seq1;
+        _seq2 = seq2;
+        _tileRows = (seq1.length + TILE_SIZE - 1) / TILE_SIZE;
+        _tileColumns = (seq2.length + TILE_SIZE - 1) / TILE_SIZE;
+
+        _rows = new int[_tileColumns][];
+        for (int j = 0; j < _tileColumns; j++) {
+            _rows[j] = new int[columnEnd(j) - j * TILE_SIZE + 1];
+        }
+        _columns = new int[_tileRows][];
+        for (int i = 0; i < _tileRows; i++) {
+            _columns[i] = new int[rowEnd(i) - i * TILE_SIZE + 1];
+        }
+
+        _pending = new AtomicIntegerArray(_tileRows * _tileColumns);
+        for (int i = 0; i < _tileRows; i++) {
+            for (int j = 0; j < _tileColumns; j++) {
+                _pending.set(i * _tileColumns + j, (i > 0 ? 1 : 0) + (j > 0 ? 1 : 0));
+            }
+        }
+    }
+
+    /**
+     * @param seq1 the first sequence
+     * @param seq2 the second sequence
+     * @return the length of the longest common subsequence of both
+     */
+    public static int length(char[] seq1, char[] seq2) {
+        if (seq1.length == 0 || seq2.length == 0) {
+            return 0;
+        }
+        WavefrontLcs wavefront = new WavefrontLcs(seq1, seq2);
+        POOL.invoke(wavefront.new TileTask(null, 0, 0));
+
+        int[] lastRow = wavefront._rows[wavefront._tileColumns - 1];
+        return lastRow[lastRow.length - 1];
+    }
+
+    /**
+     * Computes one tile, then forks the tiles below and to the right of it if it was the last of their dependencies.
+     * Every tile completes into the one which forked it, so the first tile completes once the whole table is done.
+     */
+    private class TileTask extends CountedCompleter<Void> {
+        private final int _tileRow;
+        private final int _tileColumn;
+
+        TileTask(CountedCompleter<?> completer, int tileRow, int tileColumn) {
+            super(completer);
+            _tileRow = tileRow;
+            _tileColumn = tileColumn;
+        }
+
+        @Override
+        public void compute() {
+            computeTile(_tileRow, _tileColumn);
+
+            TileTask below = _tileRow + 1 < _tileRows && release(_tileRow + 1, _tileColumn)
+                    ? new TileTask(this, _tileRow + 1, _tileColumn) : null;
+            TileTask right = _tileColumn + 1 < _tileColumns && release(_tileRow, _tileColumn + 1)
+                    ? new TileTask(this, _tileRow, _tileColumn + 1) : null;
+
+            if (below != null) {
+                addToPendingCount(1);
+                below.fork();
+            }
+            if (right != null) {
+                addToPendingCount(1);
+                right.fork();
+            }
+            tryComplete();
+        }
+    }
+
+    private boolean release(int tileRow, int tileColumn) {
+        return _pending.decrementAndGet(tileRow * _tileColumns + tileColumn) == 0;
+    }
+
+    /**
+     * The rolling row DP over one tile, reading its top edge from rows and its left edge from columns, and overwriting
+     * both with its bottom and right edges in place.
+     */
+    private void computeTile(int tileRow, int tileColumn) {
+        int from1 = tileRow * TILE_SIZE;
+        int to1 = rowEnd(tileRow);
+        int from2 = tileColumn * TILE_SIZE;
+        int width = columnEnd(tileColumn) - from2;
+
+        int[] row = _rows[tileColumn];
+        int[] column = _columns[tileRow];
+        // the corner of the right edge is the last cell of the top edge, before the top edge is overwritten
+        int corner = row[width];
+
+        for (int i = from1, r = 1; i < to1; i++, r++) {
+            char c = _seq1[i];
+            int diagonal = row[0];
+            row[0] = column[r];
+            for (int j = 1; j <= width; j++) {
+                int above = row[j];
+                if (c == _seq2[from2 + j - 1]) {
+                    row[j] = diagonal + 1;
+                } else if (row[j - 1] > above) {
+                    row[j] = row[j - 1];
+                }
+                diagonal = above;
+            }
+            column[r] = row[width];
+        }
+        column[0] = corner;
+    }
+
+    private int rowEnd(int tileRow) {
+        return Math.min(_seq1.length, (tileRow + 1) * TILE_SIZE);
+    }
+
+    private int columnEnd(int tileColumn) {
+        return Math.min(_seq2.length, (tileColumn + 1) * TILE_SIZE);
+    }
+}
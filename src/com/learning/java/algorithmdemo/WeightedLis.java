@@ -0,0 +1,205 @@
+package com.learning.java.algorithmdemo;
+
+import com.learning.java.algorithmdemo.concurrency.ConcurrentMergeSort.ParallelMergeSorter;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The maximum weight strictly increasing subsequence, and the number of longest increasing subsequences, in
+ * O(n log n) over arrays of tens of millions of elements.
+ *
+ * Both walk the array once, asking for each element about the best subsequence ending at any smaller value seen so
+ * far. Values are first replaced by their rank among the distinct values (coordinate compression), sorted with the
+ * parallel {@link ParallelMergeSorter} and looked up in parallel. The question then becomes a prefix query over
+ * ranks, answered by a Fenwick tree: a prefix maximum of weights, or the longest length below a rank together with how
+ * many subsequences reach it. Everything is held in primitive arrays, one int per element plus one or two primitives
+ * per distinct value.
+ */
+public class WeightedLis {
+    // values per rank lookup task
+    private static final int RANK_THRESHOLD = 1 << 16;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The length of the longest increasing subsequences of an array, and how many there are.
+     */
+    public static class LongestCount {
+        public final int length;
+        // modulo the prime given
+        public final long count;
+
+        LongestCount(int length, long count) {
+            this.length = length;
+            this.count = count;
+        }
+
+        @Override
+        public String toString() {
+            return "LongestCount{length=" + length + ", count=" + count + "}";
+        }
+    }
+
+    /**
+     * @param values the sequence
+     * @param weights the weight of each element, not negative
+     * @return the largest total weight of a strictly increasing subsequence
+     */
+    public static long maxWeight(int[] values, long[] weights) {
+        if (values.length != weights.length) {
+            throw new IllegalArgumentException("Expected one weight per value, values: " + values.length
+                    + ", weights: " + weights.length);
+        }
+        int[] ranks = new int[values.length];
+        int distinct = compress(values, ranks);
+
+        // tree[i] is the heaviest subsequence ending at a rank in the range of Fenwick node i
+        long[] tree = new long[distinct + 1];
+        long best = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Weights must not be negative: " + weights[i] + " at " + i);
+            }
+            long weight = weights[i] + prefixMax(tree, ranks[i] - 1);
+            updateMax(tree, ranks[i], weight);
+            best = Math.max(best, weight);
+        }
+        return best;
+    }
+
+    /**
+     * Counts longest strictly increasing subsequences as distinct sets of positions, so equal values at different
+     * positions make different subsequences.
+     *
+     * @param values the sequence
+     * @param prime the modulus of the count
+     * @return the LIS length and the number of LISs modulo prime
+     */
+    public static LongestCount countLongest(int[] values, long prime) {
+        if (prime < 2) {
+            throw new IllegalArgumentException("Modulus must be at least 2: " + prime);
+        }
+        int[] ranks = new int[values.length];
+        int distinct = compress(values, ranks);
+
+        // for Fenwick node i, the longest subsequence ending at a rank in its range, and how many have that length
+        int[] lengths = new int[distinct + 1];
+        long[] counts = new long[distinct + 1];
+        int bestLength = 0;
+        long bestCount = 0;
+        for (int rank : ranks) {
+            // the longest below this rank, and how many
+            int length = 0;
+            long count = 1;
+            for (int i = rank - 1; i > 0; i -= i & -i) {
+                if (lengths[i] > length) {
+                    length = lengths[i];
+                    count = counts[i];
+                } else if (lengths[i] == length && length > 0) {
+                    count = (count + counts[i]) % prime;
+                }
+            }
+            length++;
+
+            for (int i = rank; i <= distinct; i += i & -i) {
+                if (lengths[i] < length) {
+                    lengths[i] = length;
+                    counts[i] = count;
+                } else if (lengths[i] == length) {
+                    counts[i] = (counts[i] + count) % prime;
+                }
+            }
+
+            if (length > bestLength) {
+                bestLength = length;
+                bestCount = count;
+            } else if (length == bestLength) {
+                bestCount = (bestCount + count) % prime;
+            }
+        }
+        return new LongestCount(bestLength, bestCount % prime);
+    }
+
+    /**
+     * Replaces each value with its rank among the distinct values, from 1.
+     *
+     * @param values the sequence
+     * @param ranks filled with the rank of each value
+     * @return the number of distinct values
+     */
+    static int compress(int[] values, int[] ranks) {
+        int[] sorted = new ParallelMergeSorter(values.clone()).sort();
+
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+
+        POOL.invoke(new RankTask(values, sorted, distinct, ranks, 0, values.length));
+        return distinct;
+    }
+
+    /**
+     * Looks up the rank of each value in a range by binary search over the sorted distinct values, splitting the
+     * range across the pool, since each lookup is a chain of cache misses on large inputs.
+     */
+    private static class RankTask extends RecursiveAction {
+        private final int[] _values;
+        private final int[] _sorted;
+        private final int _distinct;
+        private final int[] _ranks;
+        private final int _from;
+        private final int _to;
+
+        RankTask(int[] values, int[] sorted, int distinct, int[] ranks, int from, int to) {
+            _values = values;
+            _sorted = sorted;
+            _distinct = distinct;
+            _ranks = ranks;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from > RANK_THRESHOLD) {
+                int mid = _from + (_to - _from) / 2;
+                invokeAll(new RankTask(_values, _sorted, _distinct, _ranks, _from, mid),
+                        new RankTask(_values, _sorted, _distinct, _ranks, mid, _to));
+                return;
+            }
+            for (int i = _from; i < _to; i++) {
+                int low = 0;
+                int high = _distinct - 1;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (_sorted[mid] < _values[i]) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                _ranks[i] = low + 1;
+            }
+        }
+    }
+
+    private static long prefixMax(long[] tree, int rank) {
+        long max = 0;
+        for (int i = rank; i > 0; i -= i & -i) {
+            max = Math.max(max, tree[i]);
+        }
+        return max;
+    }
+
+    private static void updateMax(long[] tree, int rank, long value) {
+        for (int i = rank; i < tree.length; i += i & -i) {
+            if (tree[i] < value) {
+                tree[i] = value;
+            }
+        }
+    }
+}
@@ -18,8 +18,11 @@ public class ConcurrentMergeSort implements AlgorithmDemo  {
   public ParallelMergeSorter _parallelMergeSorter;
 
   public static class ParallelMergeSorter  {
-    int workers = Runtime.getRuntime().availableProcessors();
-    ForkJoinPool _pool = new ForkJoinPool(workers);
+    // ranges this small are merge sorted in the worker rather than split into more tasks
+    private static final int SEQUENTIAL_THRESHOLD = 8_192;
+
+    // shared by every sorter, so that sorting many arrays does not start a new set of threads each time
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
     private final int[] _inputArray;
     public ParallelMergeSorter (int[] array) {
@@ -42,7 +45,9 @@ public class ConcurrentMergeSort implements AlgorithmDemo  {
        * Divide and conquer merge sort algorithm.
        */
       public void compute() {
-        if (_left < _right) {
+        if (_right - _left < SEQUENTIAL_THRESHOLD) {
+          sortSequential(_left, _right);
+        } else {
           int m = _left + (_right - _left) / 2;
 
           // invoke more parallel workers to continue dividing and sorting
@@ -62,11 +67,24 @@ public class ConcurrentMergeSort implements AlgorithmDemo  {
       if (_inputArray.length < 100_000) {
         new MergeSort.MergeSorter().sort(_inputArray);
       } else {
-        _pool.execute(new ParallelWorker(0, _inputArray.length - 1));
+        // invoke, so the array is sorted when this returns
+        POOL.invoke(new ParallelWorker(0, _inputArray.length - 1));
       }
       return _inputArray;
     }
 
+    /**
+     * The same divide and conquer merge sort, on the worker's own thread.
+     */
+    private void sortSequential(int l, int r) {
+      if (l < r) {
+        int m = l + (r - l) / 2;
+        sortSequential(l, m);
+        sortSequential(m + 1, r);
+        merge(l, m, r);
+      }
+    }
+
     private void merge(int l, int m, int r) {
       int i, j, k;
       int leftLen = m - l + 1;
@@ -0,0 +1,223 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import com.learning.java.algorithmdemo.AlgorithmDemo;
+import com.learning.java.algorithmdemo.concurrency.ProducerConsumer.Consumer;
+import com.learning.java.algorithmdemo.concurrency.ProducerConsumer.Data;
+import com.learning.java.algorithmdemo.concurrency.ProducerConsumer.Producer;
+import com.learning.java.utils.StopWatch;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+
+/**
+ * Demonstrates the {@link MappedQueue}, a durable queue which plugs into the same {@link Producer} and
+ * {@link Consumer} interfaces as the in memory ArrayBlockingQueue of {@link ProducerConsumer}.
+ *
+ * 1. throughput of the in memory queue versus the mapped queue
+ * 2. a consumer which stops half way, and picks up from its durable cursor after the queue is re-opened. Items taken
+ *    with take are delivered at most once, so the item it was handling when it stopped is read without committing,
+ *    and is read again after the restart
+ * 3. a consumer running in a second JVM, reading items while this JVM produces them
+ */
+public class DurableProducerConsumer implements AlgorithmDemo {
+  static final long THROUGHPUT_ITEMS = 2_000_000;
+  static final long RESTART_ITEMS = 50_000;
+  static final long CROSS_PROCESS_ITEMS = 200_000;
+  // small segments, so that the restart run rolls over and cleans up several of them
+  static final int SMALL_SEGMENT_SIZE = 1_000 * MappedQueue.RECORD_SIZE;
+
+  private static Producer<Data> producer(long items) {
+    return (queue) -> {
+      try {
+        for (long i = 0; i < items; i++) {
+          Data data = new Data();
+          data.sequence = i;
+          data.payload = i * 31;
+          queue.put(data);
+        }
+      } catch (InterruptedException ex) {
+        ex.printStackTrace();
+      }
+    };
+  }
+
+  private static Consumer<Data> consumer(long items, AtomicLong checksum) {
+    return (queue) -> {
+      try {
+        long sum = 0;
+        for (long i = 0; i < items; i++) {
+          sum += queue.take().payload;
+        }
+        checksum.set(sum);
+      } catch (InterruptedException ex) {
+        ex.printStackTrace();
+      }
+    };
+  }
+
+  private static long expectedChecksum(long from, long to) {
+    long sum = 0;
+    for (long i = from; i < to; i++) {
+      sum += i * 31;
+    }
+    return sum;
+  }
+
+  private void runThroughput(String name, BlockingQueue<Data> queue) {
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    AtomicLong checksum = new AtomicLong();
+    StopWatch watch = new StopWatch();
+    watch.start();
+    Future<?> produced = pool.submit(() -> producer(THROUGHPUT_ITEMS).produce(queue));
+    Future<?> consumed = pool.submit(() -> consumer(THROUGHPUT_ITEMS, checksum).consume(queue));
+    pool.shutdown();
+    try {
+      produced.get();
+      consumed.get();
+    } catch (InterruptedException | ExecutionException ex) {
+      System.out.println("An error or interruption occurred during execution");
+      ex.printStackTrace();
+    }
+    var totalTime = watch.currentTime(TimeUnit.MILLISECONDS);
+    watch.stop();
+    System.out.printf("%s, time (ms): %.1f, items / sec: %.1f, checksum ok: %b%n", name, totalTime,
+        THROUGHPUT_ITEMS / (totalTime / 1_000.0), checksum.get() == expectedChecksum(0, THROUGHPUT_ITEMS));
+  }
+
+  private void runRestart(Path directory) throws InterruptedException {
+    long half = RESTART_ITEMS / 2;
+    try (MappedQueue mappedQueue = new MappedQueue(directory, SMALL_SEGMENT_SIZE, new WaitStrategy.SpinThenYield())) {
+      MappedQueue.ConsumerQueue queue = mappedQueue.queue("restart");
+      producer(RESTART_ITEMS).produce(queue);
+      for (long i = 0; i < half; i++) {
+        queue.take();
+      }
+      // the item in flight when the consumer stops, read but never committed
+      Data inFlight = new Data();
+      queue.readInto(inFlight);
+      System.out.println("Before restart, consumed: " + half + ", in flight: " + inFlight.sequence + ", remaining: "
+          + queue.size() + ", segments: " + countSegments(directory));
+    }
+
+    // a new instance sees only what is on disk
+    try (MappedQueue mappedQueue = new MappedQueue(directory, SMALL_SEGMENT_SIZE, new WaitStrategy.SpinThenYield())) {
+      MappedQueue.ConsumerQueue queue = mappedQueue.queue("restart");
+      // handle the in flight item again, and only then commit it
+      Data redelivered = new Data();
+      long index = queue.readInto(redelivered);
+      long firstSequence = redelivered.sequence;
+      long firstPayload = redelivered.payload;
+      queue.commit(index);
+      AtomicLong checksum = new AtomicLong();
+      consumer(RESTART_ITEMS - half - 1, checksum).consume(queue);
+      checksum.addAndGet(firstPayload);
+      mappedQueue.cleanup();
+      System.out.println("After restart, first sequence: " + firstSequence + ", checksum ok: "
+          + (checksum.get() == expectedChecksum(half, RESTART_ITEMS)) + ", segments after cleanup: "
+          + countSegments(directory));
+    }
+  }
+
+  private void runCrossProcess(Path directory) throws IOException, InterruptedException {
+    String java = ProcessHandle.current().info().command().orElse("java");
+    Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        DurableProducerConsumer.class.getName(), directory.toString(), "child", Long.toString(CROSS_PROCESS_ITEMS))
+        .redirectErrorStream(true)
+        .start();
+
+    StopWatch watch = new StopWatch();
+    watch.start();
+    try (MappedQueue mappedQueue = new MappedQueue(directory)) {
+      producer(CROSS_PROCESS_ITEMS).produce(mappedQueue.queue("producer"));
+
+      String childOutput;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+        childOutput = reader.readLine();
+      }
+      child.waitFor();
+      var totalTime = watch.currentTime(TimeUnit.MILLISECONDS);
+      watch.stop();
+      System.out.printf("Cross process consumer, time (ms): %.1f, child checksum ok: %b%n", totalTime,
+          childOutput != null && Long.parseLong(childOutput.trim()) == expectedChecksum(0, CROSS_PROCESS_ITEMS));
+    }
+  }
+
+  private static long countSegments(Path directory) {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter((path) -> path.toString().endsWith(".seg")).count();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static void deleteDirectory(Path directory) {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach((path) -> path.toFile().delete());
+    } catch (IOException ex) {
+      ex.printStackTrace();
+    }
+  }
+
+  @Override
+  public void run() {
+    Path throughputDir = null;
+    Path restartDir = null;
+    Path crossProcessDir = null;
+    try {
+      throughputDir = Files.createTempDirectory("mapped-queue");
+      restartDir = Files.createTempDirectory("mapped-queue");
+      crossProcessDir = Files.createTempDirectory("mapped-queue");
+
+      runThroughput("ArrayBlockingQueue", new ArrayBlockingQueue<>(1024));
+      try (MappedQueue mappedQueue = new MappedQueue(throughputDir)) {
+        runThroughput("MappedQueue", mappedQueue.queue("throughput"));
+      }
+
+      runRestart(restartDir);
+      runCrossProcess(crossProcessDir);
+    } catch (IOException | InterruptedException ex) {
+      System.out.println("An error or interruption occurred during execution");
+      ex.printStackTrace();
+    } finally {
+      Stream.of(throughputDir, restartDir, crossProcessDir).filter((dir) -> dir != null)
+          .forEach(DurableProducerConsumer::deleteDirectory);
+    }
+
+    /*
+     * Sample Output
+     * ArrayBlockingQueue, time (ms): 438.5, items / sec: 4561439.1, checksum ok: true
+     * MappedQueue, time (ms): 769.8, items / sec: 2598138.5, checksum ok: true
+     * Before restart, consumed: 25000, in flight: 25000, remaining: 25000, segments: 50
+     * After restart, first sequence: 25000, checksum ok: true, segments after cleanup: 0
+     * Cross process consumer, time (ms): 297.3, child checksum ok: true
+     */
+  }
+
+  /**
+   * Entry point of the cross process consumer: consumes a number of items from a queue directory as the given
+   * consumer group, then prints the checksum of their payloads.
+   *
+   * @param args the queue directory, the consumer group name and the number of items
+   */
+  public static void main(String[] args) {
+    AtomicLong checksum = new AtomicLong();
+    try (MappedQueue mappedQueue = new MappedQueue(Path.of(args[0]))) {
+      consumer(Long.parseLong(args[2]), checksum).consume(mappedQueue.queue(args[1]));
+    }
+    System.out.println(checksum.get());
+  }
+}
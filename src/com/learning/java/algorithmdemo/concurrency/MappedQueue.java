@@ -0,0 +1,559 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import com.learning.java.algorithmdemo.concurrency.ProducerConsumer.Data;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A persistent, append only queue of {@link Data} items stored in memory mapped segment files. Items survive a crash
+ * or restart of the process, and any process on the same host that opens the same directory can consume them.
+ *
+ * Layout of the queue directory:
+ *
+ * queue.meta         the index of the next item to append, a hint used to find the end of the queue on open
+ * 00000000000000000000.seg, 00000000000000000001.seg, ...
+ *                    fixed size segments of fixed size records, [commit marker][sequence][payload]
+ * name.cursor        the index of the next item to be read by the consumer group 'name'
+ *
+ * A record is visible once its commit marker (index + 1) is written, which happens after the record body with release
+ * semantics, so a reader in any process never sees a half written record. Each consumer group has its own durable
+ * cursor, advanced with a compare and swap on the mapped file, so several consumers of a group (in one or more
+ * processes) take distinct items, while separate groups each see every item.
+ *
+ * Appending is serialized within one process, so only a single process should produce to a queue directory. When
+ * appending rolls over to a new segment, segments that every cursor has moved past are deleted.
+ *
+ * The {@link BlockingQueue} take / poll move the cursor as they hand an item out, which is at most once delivery: an
+ * item taken by a consumer that crashes before it has handled the item is lost. For at least once delivery a consumer
+ * reads the item with {@link ConsumerQueue#readInto(Data)}, handles it, and only then moves the cursor past it with
+ * {@link ConsumerQueue#commit(long)}. An item being handled when the consumer crashes is read again after a restart,
+ * and when a group has several consumers, more than one may handle the same item before one of them commits it.
+ */
+public class MappedQueue implements Closeable {
+  static final int RECORD_SIZE = 24;
+  static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+  // atomic / ordered long access to the mapped files
+  private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+  private static final String META_FILE = "queue.meta";
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String CURSOR_SUFFIX = ".cursor";
+
+  private final Path _directory;
+  private final int _segmentSize;
+  private final long _recordsPerSegment;
+  private final WaitStrategy _waitStrategy;
+
+  // mapped segments, by segment number
+  private final ConcurrentHashMap<Long, MappedByteBuffer> _segments = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, ConsumerQueue> _consumers = new ConcurrentHashMap<>();
+  private final MappedByteBuffer _meta;
+
+  // guarded by this, the index the next append will write
+  private long _writeIndex;
+  // guarded by this, the segment being appended to
+  private MappedSegment _writeSegment;
+
+  public MappedQueue(Path directory) {
+    this(directory, DEFAULT_SEGMENT_SIZE, new WaitStrategy.TimedParkBackoff());
+  }
+
+  /**
+   * @param directory the queue directory, created if missing
+   * @param segmentSize the size in bytes of each segment file
+   * @param waitStrategy how consumers wait for new items. Signals only reach consumers in this process, consumers in
+   *     other processes always find new items by polling.
+   */
+  public MappedQueue(Path directory, int segmentSize, WaitStrategy waitStrategy) {
+    if (segmentSize < RECORD_SIZE) {
+      throw new IllegalArgumentException("Segment size must hold at least one record: " + segmentSize);
+    }
+    _directory = directory;
+    _segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+    _recordsPerSegment = _segmentSize / RECORD_SIZE;
+    _waitStrategy = waitStrategy;
+
+    try {
+      Files.createDirectories(directory);
+      _meta = map(directory.resolve(META_FILE), Long.BYTES);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Could not open queue in " + directory, ex);
+    }
+
+    // the meta index may lag the segments if the process died between committing a record and updating it
+    long index = (long) LONGS.getAcquire(_meta, 0);
+    while (isCommitted(index)) {
+      index++;
+    }
+    _writeIndex = index;
+    LONGS.setRelease(_meta, 0, index);
+  }
+
+  /**
+   * Returns the queue view for a consumer group. Producers can use any view to put items, consumers of the group
+   * take items from the group's durable cursor.
+   *
+   * @param consumerName the consumer group name, used as the cursor file name
+   * @return a {@link BlockingQueue} view over this queue
+   */
+  public ConsumerQueue queue(String consumerName) {
+    return _consumers.computeIfAbsent(consumerName, ConsumerQueue::new);
+  }
+
+  /**
+   * Append a single item, making it visible to every consumer group.
+   */
+  public synchronized void append(long sequence, long payload) {
+    long index = _writeIndex;
+    long segmentNumber = index / _recordsPerSegment;
+    if (_writeSegment == null || _writeSegment.number != segmentNumber) {
+      _writeSegment = new MappedSegment(segmentNumber, segment(segmentNumber, true));
+    }
+    MappedByteBuffer segment = _writeSegment.buffer;
+    int offset = offset(index);
+
+    segment.putLong(offset + Long.BYTES, sequence);
+    segment.putLong(offset + 2 * Long.BYTES, payload);
+    // commit the record, readers check this marker before reading the body
+    LONGS.setRelease(segment, offset, index + 1);
+
+    _writeIndex = index + 1;
+    LONGS.setRelease(_meta, 0, index + 1);
+    _waitStrategy.signal();
+
+    if (_writeIndex % _recordsPerSegment == 0) {
+      // rolled over, the next append opens a new segment so older ones may no longer be needed
+      cleanup();
+    }
+  }
+
+  /**
+   * @return the index the next append will write, as seen by any process.
+   */
+  public long writeIndex() {
+    return (long) LONGS.getAcquire(_meta, 0);
+  }
+
+  /**
+   * Flush all mapped changes to the storage device, making them survive an operating system crash as well.
+   */
+  public void sync() {
+    _meta.force();
+    _segments.values().forEach(MappedByteBuffer::force);
+    _consumers.values().forEach(ConsumerQueue::sync);
+  }
+
+  /**
+   * Delete the segments that every consumer group cursor has moved past. Segments are kept if no consumer group
+   * exists yet, so that a consumer which registers later still sees every item. A group which registers after some
+   * segments were deleted starts at the oldest segment left.
+   */
+  public synchronized void cleanup() {
+    long minCursor = Long.MAX_VALUE;
+    try (DirectoryStream<Path> cursors = Files.newDirectoryStream(_directory, "*" + CURSOR_SUFFIX)) {
+      for (Path cursor : cursors) {
+        minCursor = Math.min(minCursor, readLong(cursor));
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Could not read consumer cursors in " + _directory, ex);
+    }
+
+    if (minCursor == Long.MAX_VALUE) {
+      return;
+    }
+
+    long current = _writeIndex / _recordsPerSegment;
+    long firstNeeded = Math.min(minCursor / _recordsPerSegment, current);
+    try (DirectoryStream<Path> segments = Files.newDirectoryStream(_directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path segment : segments) {
+        long segmentNumber = segmentNumber(segment);
+        if (segmentNumber < firstNeeded) {
+          // the mapping stays valid for any reader still holding it, the file is removed once unmapped
+          _segments.remove(segmentNumber);
+          Files.deleteIfExists(segment);
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Could not clean up segments in " + _directory, ex);
+    }
+  }
+
+  @Override
+  public void close() {
+    // mappings are released when garbage collected, there is no explicit unmap
+    _segments.clear();
+    _consumers.clear();
+  }
+
+  /**
+   * @return the index of the first record in the oldest segment on disk, or the write index if there is none
+   */
+  private long firstIndexOnDisk() throws IOException {
+    long oldest = Long.MAX_VALUE;
+    try (DirectoryStream<Path> segments = Files.newDirectoryStream(_directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path segment : segments) {
+        oldest = Math.min(oldest, segmentNumber(segment));
+      }
+    }
+    return oldest == Long.MAX_VALUE ? writeIndex() : oldest * _recordsPerSegment;
+  }
+
+  private static long segmentNumber(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private int offset(long index) {
+    return (int) (index % _recordsPerSegment) * RECORD_SIZE;
+  }
+
+  private boolean isCommitted(long index) {
+    MappedByteBuffer segment = segment(index / _recordsPerSegment, false);
+    return segment != null && (long) LONGS.getAcquire(segment, offset(index)) == index + 1;
+  }
+
+  /**
+   * @param segmentNumber the segment to map
+   * @param create create the segment file if it does not exist, only the appender creates segments
+   * @return the mapped segment, or null if it does not exist and create is false
+   */
+  private MappedByteBuffer segment(long segmentNumber, boolean create) {
+    MappedByteBuffer segment = _segments.get(segmentNumber);
+    if (segment != null) {
+      return segment;
+    }
+
+    Path path = _directory.resolve(String.format("%020d%s", segmentNumber, SEGMENT_SUFFIX));
+    if (!create && !Files.exists(path)) {
+      return null;
+    }
+
+    return _segments.computeIfAbsent(segmentNumber, (number) -> {
+      try {
+        return create ? map(path, _segmentSize) : mapExisting(path, _segmentSize);
+      } catch (NoSuchFileException ex) {
+        // cleaned up by the appender while we were looking at it
+        return null;
+      } catch (IOException ex) {
+        throw new UncheckedIOException("Could not map segment " + path, ex);
+      }
+    });
+  }
+
+  private static MappedByteBuffer map(Path path, int size) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      // mapping past the end of the file grows it, new bytes are zero
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  private static MappedByteBuffer mapExisting(Path path, int size) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  private static long readLong(Path path) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder());
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      channel.read(buffer, 0);
+    }
+    // a cursor file which is still being created reads as 0
+    return buffer.position() == Long.BYTES ? buffer.getLong(0) : 0;
+  }
+
+  /**
+   * A mapped segment and its number, cached by the appender and readers to skip the segment map lookup.
+   */
+  static class MappedSegment {
+    final long number;
+    final MappedByteBuffer buffer;
+
+    MappedSegment(long number, MappedByteBuffer buffer) {
+      this.number = number;
+      this.buffer = buffer;
+    }
+  }
+
+  /**
+   * The {@link BlockingQueue} view of the queue for one consumer group. The queue is unbounded, so puts never block.
+   */
+  public class ConsumerQueue extends AbstractQueue<Data> implements BlockingQueue<Data> {
+    private final Path _cursorPath;
+    // mapped lazily, so that producer only views do not hold back segment cleanup
+    private volatile MappedByteBuffer _cursor;
+    // the segment last read from, replaced as the cursor moves on
+    private volatile MappedSegment _readSegment;
+
+    ConsumerQueue(String consumerName) {
+      _cursorPath = _directory.resolve(consumerName + CURSOR_SUFFIX);
+    }
+
+    private MappedByteBuffer cursor() {
+      MappedByteBuffer cursor = _cursor;
+      if (cursor == null) {
+        // under the lock cleanup holds, so no segment is deleted between finding the oldest and starting there
+        synchronized (MappedQueue.this) {
+          if (_cursor == null) {
+            _cursor = openCursor();
+          }
+          cursor = _cursor;
+        }
+      }
+      return cursor;
+    }
+
+    /**
+     * Maps the group's cursor file. A new group starts at the oldest item still on disk, as the items before it were
+     * cleaned up once every existing group had taken them.
+     */
+    private MappedByteBuffer openCursor() {
+      try {
+        boolean created;
+        try {
+          // only one process creates the file, any other maps it, reading 0 until the creator has written the start
+          Files.createFile(_cursorPath);
+          created = true;
+        } catch (FileAlreadyExistsException ex) {
+          created = false;
+        }
+        MappedByteBuffer cursor = map(_cursorPath, Long.BYTES);
+        if (created) {
+          LONGS.setRelease(cursor, 0, firstIndexOnDisk());
+        }
+        return cursor;
+      } catch (IOException ex) {
+        throw new UncheckedIOException("Could not open cursor " + _cursorPath, ex);
+      }
+    }
+
+    void sync() {
+      if (_cursor != null) {
+        _cursor.force();
+      }
+    }
+
+    /**
+     * Take the next item into an existing {@link Data}, without allocating. The cursor moves past the item before it
+     * is handled, so it is lost if the consumer crashes while handling it.
+     *
+     * @param target filled with the item taken, only when true is returned
+     * @return false if there is no item to take
+     */
+    public boolean pollInto(Data target) {
+      for (;;) {
+        long index = readInto(target);
+        if (index < 0) {
+          return false;
+        }
+        // another consumer of the group may have taken it first
+        if (commit(index)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * Read the item at the cursor into an existing {@link Data}, without moving the cursor. Once the item is handled,
+     * {@link #commit(long)} moves the cursor past it, so that a consumer which crashes in between reads it again.
+     *
+     * @param target filled with the item read, only when an index is returned
+     * @return the index of the item read, to commit, or -1 if there is no item to read
+     */
+    public long readInto(Data target) {
+      long index = (long) LONGS.getAcquire(cursor(), 0);
+      MappedByteBuffer segment = readSegment(index / _recordsPerSegment);
+      if (segment == null) {
+        return -1;
+      }
+      int offset = offset(index);
+      if ((long) LONGS.getAcquire(segment, offset) != index + 1) {
+        return -1;
+      }
+      target.sequence = segment.getLong(offset + Long.BYTES);
+      target.payload = segment.getLong(offset + 2 * Long.BYTES);
+      return index;
+    }
+
+    /**
+     * Move the group's cursor past an item returned by {@link #readInto(Data)}.
+     *
+     * @param index the index of the item
+     * @return false if another consumer of the group already committed it, and the cursor moved on without this one
+     */
+    public boolean commit(long index) {
+      return LONGS.compareAndSet(cursor(), 0, index, index + 1);
+    }
+
+    private MappedByteBuffer readSegment(long segmentNumber) {
+      MappedSegment readSegment = _readSegment;
+      if (readSegment != null && readSegment.number == segmentNumber) {
+        return readSegment.buffer;
+      }
+      MappedByteBuffer segment = segment(segmentNumber, false);
+      if (segment != null) {
+        _readSegment = new MappedSegment(segmentNumber, segment);
+        // the cursor never moves back, so let go of the segments before it. Only the appending process runs cleanup,
+        // so a process which only consumes would otherwise keep every segment it read mapped, and the space of the
+        // deleted files in use. Another group of this process still behind maps them again when it needs them.
+        _segments.keySet().removeIf((number) -> number < segmentNumber);
+      }
+      return segment;
+    }
+
+    @Override
+    public boolean offer(Data data) {
+      append(data.sequence, data.payload);
+      return true;
+    }
+
+    @Override
+    public void put(Data data) {
+      offer(data);
+    }
+
+    @Override
+    public boolean offer(Data data, long timeout, TimeUnit unit) {
+      return offer(data);
+    }
+
+    @Override
+    public Data poll() {
+      Data data = new Data();
+      return pollInto(data) ? data : null;
+    }
+
+    @Override
+    public Data take() throws InterruptedException {
+      Data data = new Data();
+      int attempt = 0;
+      while (!pollInto(data)) {
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        attempt = _waitStrategy.idle(attempt);
+      }
+      return data;
+    }
+
+    @Override
+    public Data poll(long timeout, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      Data data = new Data();
+      int attempt = 0;
+      while (!pollInto(data)) {
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        if (System.nanoTime() - deadline >= 0) {
+          return null;
+        }
+        attempt = _waitStrategy.idle(attempt);
+      }
+      return data;
+    }
+
+    @Override
+    public Data peek() {
+      long index = (long) LONGS.getAcquire(cursor(), 0);
+      return read(index);
+    }
+
+    private Data read(long index) {
+      if (!isCommitted(index)) {
+        return null;
+      }
+      MappedByteBuffer segment = segment(index / _recordsPerSegment, false);
+      if (segment == null) {
+        return null;
+      }
+      int offset = offset(index);
+      Data data = new Data();
+      data.sequence = segment.getLong(offset + Long.BYTES);
+      data.payload = segment.getLong(offset + 2 * Long.BYTES);
+      return data;
+    }
+
+    /**
+     * @return the items from the cursor to the end of the queue, or 0 if the item at the cursor cannot be polled yet
+     */
+    @Override
+    public int size() {
+      long index = (long) LONGS.getAcquire(cursor(), 0);
+      if (!isCommitted(index)) {
+        return 0;
+      }
+      long size = writeIndex() - index;
+      return (int) Math.min(Integer.MAX_VALUE, Math.max(1, size));
+    }
+
+    @Override
+    public int remainingCapacity() {
+      return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Iterates the items not yet taken by this consumer group, without taking them.
+     */
+    @Override
+    public Iterator<Data> iterator() {
+      return new Iterator<>() {
+        private long _index = (long) LONGS.getAcquire(cursor(), 0);
+        private final long _end = writeIndex();
+
+        @Override
+        public boolean hasNext() {
+          return _index < _end && isCommitted(_index);
+        }
+
+        @Override
+        public Data next() {
+          Data data = _index < _end ? read(_index) : null;
+          if (data == null) {
+            throw new NoSuchElementException();
+          }
+          _index++;
+          return data;
+        }
+      };
+    }
+
+    @Override
+    public int drainTo(Collection<? super Data> collection) {
+      return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Data> collection, int maxElements) {
+      int drained = 0;
+      Data data;
+      while (drained < maxElements && (data = poll()) != null) {
+        collection.add(data);
+        drained++;
+      }
+      return drained;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Multiplies very large {@link BigInteger}s with Karatsuba's algorithm, computing the three half size products as
+ * parallel ForkJoin tasks. Below the parallel threshold the products are left to {@link BigInteger#multiply}, which
+ * already switches to Karatsuba and Toom-Cook internally, so only the top few levels of the recursion are split.
+ *
+ * For x = x1 * 2^k + x0 and y = y1 * 2^k + y0:
+ *
+ * z2 = x1 * y1
+ * z0 = x0 * y0
+ * z1 = (x1 + x0) * (y1 + y0) - z2 - z0
+ * x * y = z2 * 2^2k + z1 * 2^k + z0
+ */
+public class ParallelKaratsuba {
+  // products smaller than this many bits are not worth a task of their own
+  static final int PARALLEL_THRESHOLD_BITS = 1 << 18;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  public static BigInteger multiply(BigInteger x, BigInteger y) {
+    if (Math.min(x.bitLength(), y.bitLength()) < PARALLEL_THRESHOLD_BITS
+        || Runtime.getRuntime().availableProcessors() == 1) {
+      return x.multiply(y);
+    }
+    return POOL.invoke(new MultiplyTask(x, y));
+  }
+
+  public static BigInteger square(BigInteger x) {
+    return multiply(x, x);
+  }
+
+  static class MultiplyTask extends RecursiveTask<BigInteger> {
+    private final BigInteger _x;
+    private final BigInteger _y;
+
+    MultiplyTask(BigInteger x, BigInteger y) {
+      _x = x;
+      _y = y;
+    }
+
+    @Override
+    protected BigInteger compute() {
+      if (Math.min(_x.bitLength(), _y.bitLength()) < PARALLEL_THRESHOLD_BITS) {
+        return _x.multiply(_y);
+      }
+
+      int sign = _x.signum() * _y.signum();
+      BigInteger x = _x.abs();
+      BigInteger y = _y.abs();
+
+      // split both numbers at the same bit position, half of the longer one
+      int k = Math.max(x.bitLength(), y.bitLength()) / 2;
+      BigInteger x1 = x.shiftRight(k);
+      BigInteger x0 = x.subtract(x1.shiftLeft(k));
+      BigInteger y1 = y.shiftRight(k);
+      BigInteger y0 = y.subtract(y1.shiftLeft(k));
+
+      MultiplyTask high = new MultiplyTask(x1, y1);
+      MultiplyTask low = new MultiplyTask(x0, y0);
+      MultiplyTask middle = new MultiplyTask(x1.add(x0), y1.add(y0));
+      ForkJoinTask.invokeAll(high, low, middle);
+
+      BigInteger z2 = high.join();
+      BigInteger z0 = low.join();
+      BigInteger z1 = middle.join().subtract(z2).subtract(z0);
+
+      BigInteger product = z2.shiftLeft(2 * k).add(z1.shiftLeft(k)).add(z0);
+      return sign < 0 ? product.negate() : product;
+    }
+  }
+}
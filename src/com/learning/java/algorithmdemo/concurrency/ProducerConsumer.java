@@ -2,6 +2,7 @@ package com.learning.java.algorithmdemo.concurrency;
 
 import com.learning.java.algorithmdemo.AlgorithmDemo;
 import com.learning.java.utils.StopWatch;
+import com.learning.java.utils.ThreadStats;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
@@ -32,13 +33,34 @@ public class ProducerConsumer implements AlgorithmDemo {
   AtomicLong consumed = new AtomicLong(0);
   StopWatch stopWatch = new StopWatch();
   ArrayBlockingQueue<Data> dataQ = new ArrayBlockingQueue<>(queueSize);
+  // how the producer and consumers wait on a full or empty queue
+  private final WaitStrategy waitStrategy;
+
+  // sizing for the allocation comparison, which runs without any produce / consume delay, 0 to skip it
+  static final long RECYCLE_ITEMS = 1_000_000;
+  static final long RECYCLE_WARMUP = 100_000;
+  static final int RECYCLE_CAPACITY = 1024;
+
+  /**
+   * Waits with the {@link WaitStrategy.Blocking} strategy, the classic ArrayBlockingQueue put / take behavior.
+   */
+  public ProducerConsumer() {
+    this(new WaitStrategy.Blocking());
+  }
+
+  /**
+   * @param waitStrategy how the producer and consumers wait on a full or empty queue
+   */
+  public ProducerConsumer(WaitStrategy waitStrategy) {
+    this.waitStrategy = waitStrategy;
+  }
 
   private Future<?> makeConsumer(long timeToCosume) {
     Consumer<Data> consumer = (queue) -> {
 
       try {
         while (consumed.get() < totalToProduce) {
-          queue.take();
+          waitStrategy.take(queue);
           consumed.incrementAndGet();
           Thread.sleep(timeToCosume);
         }
@@ -67,7 +89,7 @@ public class ProducerConsumer implements AlgorithmDemo {
             timesBlockedDueToNoRemainingCapacity++;
           }
 
-          queue.put(new Data());
+          waitStrategy.put(queue, new Data());
 
           if (wasPaused) {
             totalPauseTime = totalProducerWaitTime.pause();
@@ -111,7 +133,7 @@ public class ProducerConsumer implements AlgorithmDemo {
     System.out.println(
         "Starting producer consumer, total to produce: " + totalToProduce + ", time to produce one data: "
             + timeToProduce + ", time to consume one data: " + timeToConsume + ", totalConsumers: " + totalConsumers
-            + ", expected time to complete (ms): " + expectedTimeToComplete);
+            + ", expected time to complete (ms): " + expectedTimeToComplete + ", wait strategy: " + waitStrategy);
 
 
 
@@ -145,10 +167,173 @@ public class ProducerConsumer implements AlgorithmDemo {
 
     /*
      * Sample Output
-     * Starting producer consumer, total to produce: 275, time to produce one data: 22, time to consume one data: 6, totalConsumers: 1, expected time to complete (ms): 6050
+     * Starting producer consumer, total to produce: 275, time to produce one data: 22, time to consume one data: 6, totalConsumers: 1, expected time to complete (ms): 6050, wait strategy: blocking
      * Total Producer Time, waiting (ms): 0.0, total (ms):6799.513481, times fully blocked: 0, max queue size: 0
      * Total working time (ms): 6817.317509, difference from expected: 767.3190459999996
      */
+
+    if (RECYCLE_ITEMS > 0) {
+      runAllocationComparison(Math.max(1, Math.min(totalConsumers, Runtime.getRuntime().availableProcessors() - 1)));
+    }
+  }
+
+  /**
+   * Pushes the same number of items through the allocating ArrayBlockingQueue path (a new Data per item) and through
+   * a {@link RecyclingRing} of pre-allocated Data slots, without any produce / consume delay, and reports the heap
+   * bytes allocated per item by the producer and consumer threads once past warm up.
+   *
+   * @param totalConsumers the number of consumer threads
+   */
+  private void runAllocationComparison(int totalConsumers) {
+    System.out.println("Allocation comparison, items: " + RECYCLE_ITEMS + ", warm up items: " + RECYCLE_WARMUP
+        + ", consumers: " + totalConsumers);
+    runAllocating(totalConsumers);
+    runRecycled(totalConsumers);
+
+    /*
+     * Sample Output
+     * Allocation comparison, items: 1000000, warm up items: 100000, consumers: 1
+     * Allocating queue, time (ms): 232.7, items / sec: 4297137.5, bytes allocated / item: 32.39
+     * Recycled ring, time (ms): 116.5, items / sec: 8583284.7, bytes allocated / item: 0.00
+     */
+  }
+
+  private void runAllocating(int totalConsumers) {
+    ArrayBlockingQueue<Data> queue = new ArrayBlockingQueue<>(RECYCLE_CAPACITY);
+    AtomicLong allocatedBytes = new AtomicLong(0);
+    ExecutorService pool = Executors.newFixedThreadPool(totalConsumers + 1);
+    Future<?>[] futures = new Future<?>[totalConsumers + 1];
+    // one end of stream marker per consumer
+    Data poison = new Data();
+
+    StopWatch watch = new StopWatch();
+    watch.start();
+    futures[0] = pool.submit(() -> {
+      long startBytes = 0;
+      try {
+        for (long i = 0; i < RECYCLE_ITEMS; i++) {
+          if (i == RECYCLE_WARMUP) {
+            startBytes = ThreadStats.allocatedBytes();
+          }
+          Data data = new Data();
+          data.sequence = i;
+          data.payload = i * 31;
+          queue.put(data);
+        }
+        allocatedBytes.addAndGet(ThreadStats.allocatedBytes() - startBytes);
+        for (int c = 0; c < totalConsumers; c++) {
+          queue.put(poison);
+        }
+      } catch (InterruptedException ex) {
+        ex.printStackTrace();
+      }
+    });
+
+    for (int c = 1; c < futures.length; c++) {
+      futures[c] = pool.submit(() -> {
+        long startBytes = -1;
+        long checksum = 0;
+        try {
+          Data data;
+          while ((data = queue.take()) != poison) {
+            if (startBytes < 0 && data.sequence >= RECYCLE_WARMUP) {
+              startBytes = ThreadStats.allocatedBytes();
+            }
+            checksum += data.payload;
+          }
+        } catch (InterruptedException ex) {
+          ex.printStackTrace();
+        }
+        if (startBytes >= 0) {
+          allocatedBytes.addAndGet(ThreadStats.allocatedBytes() - startBytes);
+        }
+        return checksum;
+      });
+    }
+
+    awaitAll(pool, futures);
+    printAllocationStats("Allocating queue", watch, allocatedBytes.get());
+  }
+
+  private void runRecycled(int totalConsumers) {
+    WaitStrategy ringWait = new WaitStrategy.SpinThenYield();
+    RecyclingRing<Data> ring = new RecyclingRing<>(RECYCLE_CAPACITY, Data::new, ringWait);
+    AtomicLong allocatedBytes = new AtomicLong(0);
+    AtomicLong recycledConsumed = new AtomicLong(0);
+    ExecutorService pool = Executors.newFixedThreadPool(totalConsumers + 1);
+    Future<?>[] futures = new Future<?>[totalConsumers + 1];
+
+    StopWatch watch = new StopWatch();
+    watch.start();
+    futures[0] = pool.submit(() -> {
+      long startBytes = 0;
+      try {
+        for (long i = 0; i < RECYCLE_ITEMS; i++) {
+          if (i == RECYCLE_WARMUP) {
+            startBytes = ThreadStats.allocatedBytes();
+          }
+          // claim a free slot, fill it in place and publish it
+          long sequence = ring.claim();
+          Data data = ring.slot(sequence);
+          data.sequence = i;
+          data.payload = i * 31;
+          ring.publish(sequence);
+        }
+        allocatedBytes.addAndGet(ThreadStats.allocatedBytes() - startBytes);
+      } catch (InterruptedException ex) {
+        ex.printStackTrace();
+      }
+    });
+
+    for (int c = 1; c < futures.length; c++) {
+      futures[c] = pool.submit(() -> {
+        long startBytes = -1;
+        long checksum = 0;
+        int attempt = 0;
+        while (recycledConsumed.get() < RECYCLE_ITEMS) {
+          long sequence = ring.tryTake();
+          if (sequence < 0) {
+            attempt = ringWait.idle(attempt);
+            continue;
+          }
+          attempt = 0;
+          Data data = ring.slot(sequence);
+          if (startBytes < 0 && data.sequence >= RECYCLE_WARMUP) {
+            startBytes = ThreadStats.allocatedBytes();
+          }
+          checksum += data.payload;
+          // hand the slot back for the producer to reuse
+          ring.release(sequence);
+          recycledConsumed.incrementAndGet();
+        }
+        if (startBytes >= 0) {
+          allocatedBytes.addAndGet(ThreadStats.allocatedBytes() - startBytes);
+        }
+        return checksum;
+      });
+    }
+
+    awaitAll(pool, futures);
+    printAllocationStats("Recycled ring", watch, allocatedBytes.get());
+  }
+
+  private void awaitAll(ExecutorService pool, Future<?>[] futures) {
+    pool.shutdown();
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException | ExecutionException ex) {
+      System.out.println("An error or interruption occurred during execution");
+      ex.printStackTrace();
+    }
+  }
+
+  private void printAllocationStats(String name, StopWatch watch, long allocatedBytes) {
+    var totalTime = watch.currentTime(TimeUnit.MILLISECONDS);
+    watch.stop();
+    System.out.printf("%s, time (ms): %.1f, items / sec: %.1f, bytes allocated / item: %.2f%n", name, totalTime,
+        RECYCLE_ITEMS / (totalTime / 1_000.0), allocatedBytes / (double) (RECYCLE_ITEMS - RECYCLE_WARMUP));
   }
 
   interface Consumer<T> {
@@ -160,5 +345,9 @@ public class ProducerConsumer implements AlgorithmDemo {
   }
 
   public static class Data {
+    // the order in which the producer created this item
+    long sequence;
+    // the work item carried to the consumer
+    long payload;
   }
 }
\ No newline at end of file
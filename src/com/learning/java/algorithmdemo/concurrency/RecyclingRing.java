@@ -0,0 +1,178 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+
+/**
+ * A bounded ring of pre-allocated, reusable slots. Producers claim a slot, fill it in place and publish it. Consumers
+ * take a published slot, process it in place and release it back to the ring so that it can be claimed again.
+ *
+ * Since every slot object is created once up front, moving an item through the ring does not allocate. This is the
+ * bounded multi-producer / multi-consumer sequence scheme described by Dmitry Vyukov, where each slot carries a
+ * sequence stamp that tells producers and consumers whether the slot is theirs to use:
+ *
+ * stamp == sequence            the slot is free, and may be claimed by the producer writing 'sequence'
+ * stamp == sequence + 1        the slot is published, and may be taken by the consumer reading 'sequence'
+ * stamp == sequence + capacity the slot was released, and is free for the next lap around the ring
+ *
+ * @param <T> the slot type
+ */
+public class RecyclingRing<T> {
+  private final Object[] _slots;
+  private final AtomicLongArray _stamps;
+  private final int _mask;
+  // how producers wait for a free slot, and consumers for a published one
+  private final WaitStrategy _waitStrategy;
+
+  // next sequence to be claimed by a producer
+  private final AtomicLong _writeSequence = new AtomicLong(0);
+  // next sequence to be taken by a consumer
+  private final AtomicLong _readSequence = new AtomicLong(0);
+
+  public RecyclingRing(int capacity, Supplier<T> slotFactory) {
+    this(capacity, slotFactory, new WaitStrategy.SpinThenYield());
+  }
+
+  /**
+   * @param capacity the number of slots, rounded up to the next power of 2, and to at least 2 since with a single
+   *     slot the published stamp of one sequence is the free stamp of the next
+   * @param slotFactory creates each slot once, up front
+   * @param waitStrategy how {@link #claim()} and {@link #take()} wait when the ring is full or empty
+   */
+  public RecyclingRing(int capacity, Supplier<T> slotFactory, WaitStrategy waitStrategy) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+
+    int size = Integer.highestOneBit(Math.max(2, capacity));
+    if (size < capacity) {
+      size <<= 1;
+    }
+
+    _slots = new Object[size];
+    _stamps = new AtomicLongArray(size);
+    _mask = size - 1;
+    _waitStrategy = waitStrategy;
+
+    for (int i = 0; i < size; i++) {
+      _slots[i] = slotFactory.get();
+      _stamps.set(i, i);
+    }
+  }
+
+  public int capacity() {
+    return _slots.length;
+  }
+
+  /**
+   * Returns the slot object for a claimed or taken sequence. The object is owned by the caller until the sequence is
+   * published (producers) or released (consumers).
+   */
+  @SuppressWarnings("unchecked")
+  public T slot(long sequence) {
+    return (T) _slots[(int) sequence & _mask];
+  }
+
+  /**
+   * Try to claim the next free slot for writing.
+   *
+   * @return the claimed sequence, or -1 if the ring is full
+   */
+  public long tryClaim() {
+    long sequence = _writeSequence.get();
+    for (;;) {
+      long stamp = _stamps.get((int) sequence & _mask);
+      long diff = stamp - sequence;
+      if (diff == 0) {
+        if (_writeSequence.compareAndSet(sequence, sequence + 1)) {
+          return sequence;
+        }
+        sequence = _writeSequence.get();
+      } else if (diff < 0) {
+        // the slot still holds an item from the previous lap
+        return -1;
+      } else {
+        // another producer claimed it first
+        sequence = _writeSequence.get();
+      }
+    }
+  }
+
+  /**
+   * Claim the next free slot for writing, waiting with the ring's {@link WaitStrategy} if the ring is full.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public long claim() throws InterruptedException {
+    long sequence;
+    int attempt = 0;
+    while ((sequence = tryClaim()) < 0) {
+      attempt = _waitStrategy.idle(attempt);
+    }
+    return sequence;
+  }
+
+  /**
+   * Make a claimed, filled slot visible to consumers.
+   */
+  public void publish(long sequence) {
+    _stamps.set((int) sequence & _mask, sequence + 1);
+    _waitStrategy.signal();
+  }
+
+  /**
+   * Try to take the next published slot for reading.
+   *
+   * @return the taken sequence, or -1 if nothing has been published yet
+   */
+  public long tryTake() {
+    long sequence = _readSequence.get();
+    for (;;) {
+      long stamp = _stamps.get((int) sequence & _mask);
+      long diff = stamp - (sequence + 1);
+      if (diff == 0) {
+        if (_readSequence.compareAndSet(sequence, sequence + 1)) {
+          return sequence;
+        }
+        sequence = _readSequence.get();
+      } else if (diff < 0) {
+        // nothing published at this sequence yet
+        return -1;
+      } else {
+        // another consumer took it first
+        sequence = _readSequence.get();
+      }
+    }
+  }
+
+  /**
+   * Take the next published slot for reading, waiting with the ring's {@link WaitStrategy} if the ring is empty.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public long take() throws InterruptedException {
+    long sequence;
+    int attempt = 0;
+    while ((sequence = tryTake()) < 0) {
+      attempt = _waitStrategy.idle(attempt);
+    }
+    return sequence;
+  }
+
+  /**
+   * Hand a taken slot back to the ring, so that producers can reuse it on the next lap.
+   */
+  public void release(long sequence) {
+    _stamps.set((int) sequence & _mask, sequence + _slots.length);
+    _waitStrategy.signal();
+  }
+
+  /**
+   * @return the number of claimed slots which have not yet been taken by a consumer.
+   */
+  public int size() {
+    return (int) Math.max(0, _writeSequence.get() - _readSequence.get());
+  }
+}
@@ -0,0 +1,189 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import com.learning.java.algorithmdemo.AlgorithmDemo;
+import com.learning.java.utils.StopWatch;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Benchmarks consumers on a workload where item costs are skewed: most items are cheap, a few are very expensive.
+ *
+ * 1. shared queue      every consumer takes from one ArrayBlockingQueue, the ProducerConsumer model
+ * 2. partitioned       each item is pinned to one consumer's queue, so cheap items wait behind expensive ones
+ * 3. work stealing     each consumer has a local deque, and idle consumers steal from busy ones
+ *
+ * A final run mixes keyed items into the work stealing dispatcher and checks that each key was handled in order.
+ */
+public class SkewedWorkload implements AlgorithmDemo {
+  static final int ITEMS = 500_000;
+  // cost of an item, in rounds of busy work
+  static final int CHEAP_COST = 100;
+  static final int EXPENSIVE_COST = 10_000;
+  // one in every EXPENSIVE_EVERY items is expensive
+  static final int EXPENSIVE_EVERY = 50;
+  static final int KEYS = 1_024;
+
+  // sink for the busy work, so it is not optimized away
+  private final AtomicLong _sink = new AtomicLong();
+
+  static class Item {
+    final long key;
+    final long sequence;
+    final int cost;
+
+    Item(long key, long sequence, int cost) {
+      this.key = key;
+      this.sequence = sequence;
+      this.cost = cost;
+    }
+  }
+
+  private Item[] generateItems() {
+    Item[] items = new Item[ITEMS];
+    long[] keySequences = new long[KEYS];
+    for (int i = 0; i < ITEMS; i++) {
+      int key = (int) (Math.random() * KEYS);
+      int cost = (i % EXPENSIVE_EVERY == 0) ? EXPENSIVE_COST : CHEAP_COST;
+      items[i] = new Item(key, keySequences[key]++, cost);
+    }
+    return items;
+  }
+
+  private void handle(Item item) {
+    // xorshift rounds stand in for the real work
+    long x = item.sequence + 1;
+    for (int i = 0; i < item.cost; i++) {
+      x ^= x << 13;
+      x ^= x >>> 7;
+      x ^= x << 17;
+    }
+    if (x == 0) {
+      _sink.incrementAndGet();
+    }
+  }
+
+  private void runSharedQueue(Item[] items, int consumers) {
+    ArrayBlockingQueue<Item> queue = new ArrayBlockingQueue<>(1024);
+    Item poison = new Item(-1, -1, 0);
+    ExecutorService pool = Executors.newFixedThreadPool(consumers);
+    Future<?>[] futures = new Future<?>[consumers];
+
+    StopWatch watch = new StopWatch();
+    watch.start();
+    for (int c = 0; c < consumers; c++) {
+      futures[c] = pool.submit(() -> {
+        try {
+          Item item;
+          while ((item = queue.take()) != poison) {
+            handle(item);
+          }
+        } catch (InterruptedException ex) {
+          ex.printStackTrace();
+        }
+      });
+    }
+
+    try {
+      for (Item item : items) {
+        queue.put(item);
+      }
+      for (int c = 0; c < consumers; c++) {
+        queue.put(poison);
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException | ExecutionException ex) {
+      System.out.println("An error or interruption occurred during execution");
+      ex.printStackTrace();
+    }
+    pool.shutdown();
+    printStats("Shared queue", watch, "");
+  }
+
+  private void runDispatcher(String name, Item[] items, int consumers, boolean pinned) {
+    StopWatch watch = new StopWatch();
+    watch.start();
+    WorkStealingDispatcher<Item> dispatcher = new WorkStealingDispatcher<>(consumers, this::handle,
+        new WaitStrategy.SpinThenYield());
+    for (int i = 0; i < items.length; i++) {
+      if (pinned) {
+        // keyed by position, so every item is pinned to a consumer and nothing is stolen
+        dispatcher.submit(items[i], i);
+      } else {
+        dispatcher.submit(items[i]);
+      }
+    }
+    dispatcher.close();
+    printStats(name, watch, ", stolen: " + dispatcher.stolen());
+  }
+
+  private void runKeyedOrder(Item[] items, int consumers) {
+    long[] lastSequence = new long[KEYS];
+    AtomicLong outOfOrder = new AtomicLong();
+    Arrays.fill(lastSequence, -1);
+
+    StopWatch watch = new StopWatch();
+    watch.start();
+    WorkStealingDispatcher<Item> dispatcher = new WorkStealingDispatcher<>(consumers, (item) -> {
+      handle(item);
+      if (item.key >= 0) {
+        // a key is only ever handled by its owner, so no other thread touches its slot
+        if (item.sequence <= lastSequence[(int) item.key]) {
+          outOfOrder.incrementAndGet();
+        }
+        lastSequence[(int) item.key] = item.sequence;
+      }
+    }, new WaitStrategy.SpinThenYield());
+    for (int i = 0; i < items.length; i++) {
+      // every other item is keyed, the rest can be stolen
+      if (i % 2 == 0) {
+        dispatcher.submit(items[i], items[i].key);
+      } else {
+        dispatcher.submit(new Item(-1, items[i].sequence, items[i].cost));
+      }
+    }
+    dispatcher.close();
+    printStats("Work stealing, half keyed", watch, ", stolen: " + dispatcher.stolen() + ", out of order: "
+        + outOfOrder.get());
+  }
+
+  private void printStats(String name, StopWatch watch, String extra) {
+    var totalTime = watch.currentTime(TimeUnit.MILLISECONDS);
+    watch.stop();
+    System.out.printf("%s, time (ms): %.1f, items / sec: %.1f%s%n", name, totalTime,
+        ITEMS / (totalTime / 1_000.0), extra);
+  }
+
+  @Override
+  public void run() {
+    int consumers = Math.max(2, Runtime.getRuntime().availableProcessors());
+    Item[] items = generateItems();
+    System.out.println("Skewed workload, items: " + ITEMS + ", consumers: " + consumers + ", cheap cost: "
+        + CHEAP_COST + ", expensive cost: " + EXPENSIVE_COST + ", expensive every: " + EXPENSIVE_EVERY);
+
+    runSharedQueue(items, consumers);
+    runDispatcher("Partitioned", items, consumers, true);
+    runDispatcher("Work stealing", items, consumers, false);
+    runKeyedOrder(items, consumers);
+
+    /*
+     * Sample Output (single core, so only the queueing overhead differs between the runs, not the parallelism)
+     * Skewed workload, items: 500000, consumers: 2, cheap cost: 100, expensive cost: 10000, expensive every: 50
+     * Shared queue, time (ms): 714.7, items / sec: 699632.2
+     * Partitioned, time (ms): 517.0, items / sec: 967033.0, stolen: 0
+     * Work stealing, time (ms): 560.2, items / sec: 892583.2, stolen: 95370
+     * Work stealing, half keyed, time (ms): 554.5, items / sec: 901653.2, stolen: 1714, out of order: 0
+     *
+     * With several cores the partitioned run finishes when its unluckiest consumer does, while stealing keeps every
+     * consumer busy until the last items, and avoids the single lock every shared queue consumer contends on.
+     */
+  }
+}
@@ -0,0 +1,188 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * How a producer or consumer waits when the queue it uses is full or empty. The strategies trade CPU for latency:
+ *
+ * BusySpin         lowest wake up latency, burns a whole core per waiting thread
+ * SpinThenYield    spins briefly, then gives the time slice away to other runnable threads
+ * TimedParkBackoff parks for an exponentially growing time, cheap on CPU but slow to notice new data
+ * Blocking         parks until signalled, the ArrayBlockingQueue put / take behavior
+ *
+ * Callers retry a non-blocking operation and call {@link #idle(int)} after each failed attempt, then {@link #signal()}
+ * once they have changed the queue state, so any thread parked by a Blocking strategy can wake up. Every strategy
+ * throws InterruptedException from idle once the waiting thread is interrupted, so any wait can be cancelled.
+ */
+public interface WaitStrategy {
+
+  /**
+   * Wait a little after a failed attempt.
+   *
+   * @param attempt how many times the caller has already idled for the current operation, starting from 0
+   * @return the attempt count to pass in on the next call
+   * @throws InterruptedException if the waiting thread was interrupted, clearing its interrupt status
+   */
+  int idle(int attempt) throws InterruptedException;
+
+  /**
+   * Wake threads parked by this strategy. Only the blocking strategy needs it.
+   */
+  default void signal() {
+  }
+
+  default <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+    int attempt = 0;
+    while (!queue.offer(item)) {
+      attempt = idle(attempt);
+    }
+  }
+
+  default <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+    int attempt = 0;
+    T item;
+    while ((item = queue.poll()) == null) {
+      attempt = idle(attempt);
+    }
+    return item;
+  }
+
+  /**
+   * Spinning and parking do not throw when the thread is interrupted, so the spinning strategies check first.
+   */
+  private static void checkInterrupted() throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  class BusySpin implements WaitStrategy {
+    @Override
+    public int idle(int attempt) throws InterruptedException {
+      checkInterrupted();
+      Thread.onSpinWait();
+      return attempt + 1;
+    }
+
+    @Override
+    public String toString() {
+      return "busy-spin";
+    }
+  }
+
+  class SpinThenYield implements WaitStrategy {
+    private final int _spins;
+
+    public SpinThenYield() {
+      this(100);
+    }
+
+    public SpinThenYield(int spins) {
+      _spins = spins;
+    }
+
+    @Override
+    public int idle(int attempt) throws InterruptedException {
+      checkInterrupted();
+      if (attempt < _spins) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+      return attempt + 1;
+    }
+
+    @Override
+    public String toString() {
+      return "spin-then-yield";
+    }
+  }
+
+  class TimedParkBackoff implements WaitStrategy {
+    private final long _minParkNanos;
+    private final long _maxParkNanos;
+
+    public TimedParkBackoff() {
+      this(1_000, 1_000_000);
+    }
+
+    public TimedParkBackoff(long minParkNanos, long maxParkNanos) {
+      _minParkNanos = minParkNanos;
+      _maxParkNanos = maxParkNanos;
+    }
+
+    @Override
+    public int idle(int attempt) throws InterruptedException {
+      checkInterrupted();
+      // double the park time on every failed attempt, up to the max
+      long parkNanos = _minParkNanos << Math.min(attempt, 30);
+      LockSupport.parkNanos(Math.min(parkNanos, _maxParkNanos));
+      return attempt + 1;
+    }
+
+    @Override
+    public String toString() {
+      return "timed-park-backoff";
+    }
+  }
+
+  /**
+   * Parks until another thread calls {@link #signal()}. A caller can check the queue and find it empty just before
+   * another thread signals, so waits are bounded by a short safety timeout instead of relying on the signal alone.
+   *
+   * For an ArrayBlockingQueue it simply uses the queue's own put / take.
+   */
+  class Blocking implements WaitStrategy {
+    private static final long SAFETY_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ReentrantLock _lock = new ReentrantLock();
+    private final Condition _changed = _lock.newCondition();
+    private volatile int _waiters = 0;
+
+    @Override
+    public int idle(int attempt) throws InterruptedException {
+      _lock.lockInterruptibly();
+      try {
+        _waiters++;
+        _changed.awaitNanos(SAFETY_TIMEOUT_NANOS);
+      } finally {
+        _waiters--;
+        _lock.unlock();
+      }
+      return attempt + 1;
+    }
+
+    @Override
+    public void signal() {
+      // skip the lock entirely when nobody is parked
+      if (_waiters > 0) {
+        _lock.lock();
+        try {
+          _changed.signalAll();
+        } finally {
+          _lock.unlock();
+        }
+      }
+    }
+
+    @Override
+    public <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+      queue.put(item);
+    }
+
+    @Override
+    public <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+      return queue.take();
+    }
+
+    @Override
+    public String toString() {
+      return "blocking";
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import com.learning.java.algorithmdemo.AlgorithmDemo;
+import com.learning.java.algorithmdemo.concurrency.ProducerConsumer.Data;
+import com.learning.java.utils.StopWatch;
+import com.learning.java.utils.ThreadStats;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Benchmarks each {@link WaitStrategy} on the ArrayBlockingQueue path and on the {@link RecyclingRing}. A single
+ * producer publishes time stamped items at a steady pace, so the queue is mostly empty and the consumer spends its
+ * time waiting. That makes the wake up latency (publish to consume) and the CPU burned while waiting visible.
+ */
+public class WaitStrategyLatency implements AlgorithmDemo {
+  // items measured per run, plus the items used to warm up
+  static final int ITEMS = 10_000;
+  static final int WARMUP = 1_000;
+  // the producer publishes one item roughly every PACE_NANOS
+  static final long PACE_NANOS = 20_000;
+  static final int CAPACITY = 1024;
+
+  interface Channel {
+    void put(long publishedAt) throws InterruptedException;
+
+    /**
+     * @return the publish time stamp of the next item
+     */
+    long take() throws InterruptedException;
+  }
+
+  static class QueueChannel implements Channel {
+    private final ArrayBlockingQueue<Data> _queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final WaitStrategy _waitStrategy;
+
+    QueueChannel(WaitStrategy waitStrategy) {
+      _waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void put(long publishedAt) throws InterruptedException {
+      Data data = new Data();
+      data.payload = publishedAt;
+      _waitStrategy.put(_queue, data);
+      _waitStrategy.signal();
+    }
+
+    @Override
+    public long take() throws InterruptedException {
+      long publishedAt = _waitStrategy.take(_queue).payload;
+      _waitStrategy.signal();
+      return publishedAt;
+    }
+  }
+
+  static class RingChannel implements Channel {
+    private final RecyclingRing<Data> _ring;
+
+    RingChannel(WaitStrategy waitStrategy) {
+      _ring = new RecyclingRing<>(CAPACITY, Data::new, waitStrategy);
+    }
+
+    @Override
+    public void put(long publishedAt) throws InterruptedException {
+      long sequence = _ring.claim();
+      _ring.slot(sequence).payload = publishedAt;
+      _ring.publish(sequence);
+    }
+
+    @Override
+    public long take() throws InterruptedException {
+      long sequence = _ring.take();
+      long publishedAt = _ring.slot(sequence).payload;
+      _ring.release(sequence);
+      return publishedAt;
+    }
+  }
+
+  /**
+   * Runs one paced producer and one consumer over the channel, then prints latency percentiles and CPU usage.
+   */
+  private void runBenchmark(String queueName, WaitStrategy waitStrategy, Channel channel) {
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    long[] latencies = new long[ITEMS];
+    long[] cpuNanos = new long[2];
+
+    StopWatch watch = new StopWatch();
+    watch.start();
+    Future<?> producer = pool.submit(() -> {
+      long cpuStart = 0;
+      try {
+        for (int i = 0; i < WARMUP + ITEMS; i++) {
+          if (i == WARMUP) {
+            cpuStart = ThreadStats.cpuTimeNanos();
+          }
+          channel.put(System.nanoTime());
+          LockSupport.parkNanos(PACE_NANOS);
+        }
+      } catch (InterruptedException ex) {
+        ex.printStackTrace();
+      }
+      cpuNanos[0] = ThreadStats.cpuTimeNanos() - cpuStart;
+    });
+
+    Future<?> consumer = pool.submit(() -> {
+      long cpuStart = 0;
+      try {
+        for (int i = 0; i < WARMUP + ITEMS; i++) {
+          if (i == WARMUP) {
+            cpuStart = ThreadStats.cpuTimeNanos();
+          }
+          long publishedAt = channel.take();
+          if (i >= WARMUP) {
+            latencies[i - WARMUP] = System.nanoTime() - publishedAt;
+          }
+        }
+      } catch (InterruptedException ex) {
+        ex.printStackTrace();
+      }
+      cpuNanos[1] = ThreadStats.cpuTimeNanos() - cpuStart;
+    });
+
+    pool.shutdown();
+    try {
+      producer.get();
+      consumer.get();
+    } catch (InterruptedException | ExecutionException ex) {
+      System.out.println("An error or interruption occurred during execution");
+      ex.printStackTrace();
+      return;
+    }
+    var wallTime = watch.currentTime(TimeUnit.MILLISECONDS);
+    watch.stop();
+
+    Arrays.sort(latencies);
+    System.out.printf(
+        "%-16s %-20s latency (us) p50: %8.1f, p99: %8.1f, max: %9.1f | cpu (ms) producer: %7.1f, consumer: %7.1f, wall: %7.1f%n",
+        queueName, waitStrategy, latencies[ITEMS / 2] / 1_000.0, latencies[(int) (ITEMS * 0.99)] / 1_000.0,
+        latencies[ITEMS - 1] / 1_000.0, cpuNanos[0] / 1_000_000.0, cpuNanos[1] / 1_000_000.0, wallTime);
+  }
+
+  private WaitStrategy[] strategies() {
+    return new WaitStrategy[]{
+        new WaitStrategy.BusySpin(),
+        new WaitStrategy.SpinThenYield(),
+        new WaitStrategy.TimedParkBackoff(),
+        new WaitStrategy.Blocking()
+    };
+  }
+
+  @Override
+  public void run() {
+    System.out.println("Wait strategy latency, items: " + ITEMS + ", publish pace (us): " + PACE_NANOS / 1_000.0
+        + ", cores: " + Runtime.getRuntime().availableProcessors());
+
+    for (WaitStrategy waitStrategy : strategies()) {
+      runBenchmark("ArrayBlockingQ", waitStrategy, new QueueChannel(waitStrategy));
+    }
+
+    for (WaitStrategy waitStrategy : strategies()) {
+      runBenchmark("RecyclingRing", waitStrategy, new RingChannel(waitStrategy));
+    }
+
+    /*
+     * Sample Output (single core, so the spinning strategies steal time from the producer)
+     * ArrayBlockingQ   busy-spin            latency (us) p50:      5.7, p99:     84.8, max:   11025.7 | cpu (ms) producer:    91.1, consumer:   790.2, wall:  1152.3
+     * ArrayBlockingQ   spin-then-yield      latency (us) p50:      5.5, p99:    245.0, max:    2472.0 | cpu (ms) producer:    66.7, consumer:   707.7, wall:   881.8
+     * ArrayBlockingQ   timed-park-backoff   latency (us) p50:      7.2, p99:     74.0, max:    1926.1 | cpu (ms) producer:    65.3, consumer:    71.7, wall:   732.8
+     * ArrayBlockingQ   blocking             latency (us) p50:      4.1, p99:     12.9, max:    4405.4 | cpu (ms) producer:    99.6, consumer:    35.8, wall:   982.4
+     * RecyclingRing    busy-spin            latency (us) p50:      5.0, p99:     84.1, max:    6589.2 | cpu (ms) producer:    78.1, consumer:   679.7, wall:   918.3
+     * RecyclingRing    spin-then-yield      latency (us) p50:      5.3, p99:     10.7, max:    3685.3 | cpu (ms) producer:    64.2, consumer:   709.3, wall:   890.3
+     * RecyclingRing    timed-park-backoff   latency (us) p50:      6.4, p99:     63.8, max:    3968.2 | cpu (ms) producer:    58.8, consumer:    65.9, wall:   719.4
+     * RecyclingRing    blocking             latency (us) p50:      5.2, p99:     11.6, max:    2170.5 | cpu (ms) producer:    89.2, consumer:    50.0, wall:   942.8
+     *
+     * The spinning strategies keep the consumer on the CPU for the whole run, the parking strategies use a fraction of
+     * it. With spare cores the spinning strategies cut the p99 latency, since no thread ever has to be woken up.
+     */
+  }
+}
@@ -0,0 +1,205 @@
+package com.learning.java.algorithmdemo.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+
+/**
+ * Dispatches items to a fixed set of consumers, where each consumer owns a local deque instead of all of them sharing
+ * one queue. Consumers take from the head of their own deque, and when it runs dry they steal from the tail of
+ * another consumer's deque, so a consumer stuck on an expensive item does not hold up the items queued behind it.
+ *
+ * Items submitted with a key are routed to the consumer which owns the key, into a queue which is never stolen from,
+ * so items sharing a key are handled one at a time in submission order.
+ *
+ * @param <T> the item type
+ */
+public class WorkStealingDispatcher<T> implements AutoCloseable {
+  private final List<Worker<T>> _workers;
+  private final Consumer<T> _handler;
+  // told about each item the handler throws on, the worker then carries on with the next item
+  private final BiConsumer<T, RuntimeException> _errorHandler;
+  private final WaitStrategy _waitStrategy;
+  private final ExecutorService _pool;
+
+  // submitted items which are not handled yet
+  private final AtomicLong _pending = new AtomicLong(0);
+  private final AtomicLong _stolen = new AtomicLong(0);
+  private final AtomicLong _failed = new AtomicLong(0);
+  private final AtomicInteger _nextWorker = new AtomicInteger(0);
+  private volatile boolean _closed = false;
+
+  static class Worker<T> {
+    // keyed items, only ever taken by the owner so their order is kept
+    final ConcurrentLinkedQueue<T> affinity = new ConcurrentLinkedQueue<>();
+    // unkeyed items, the owner takes from the head and thieves steal from the tail
+    final ConcurrentLinkedDeque<T> local = new ConcurrentLinkedDeque<>();
+  }
+
+  /**
+   * Handler failures are printed, see {@link #WorkStealingDispatcher(int, Consumer, WaitStrategy, BiConsumer)}.
+   */
+  public WorkStealingDispatcher(int workers, Consumer<T> handler, WaitStrategy waitStrategy) {
+    this(workers, handler, waitStrategy, (item, ex) -> ex.printStackTrace());
+  }
+
+  /**
+   * @param workers the number of consumer threads
+   * @param handler handles each item, called on a consumer thread
+   * @param waitStrategy how a consumer waits when there is nothing to take or steal
+   * @param errorHandler called on the consumer thread with an item the handler threw on, and the exception
+   */
+  public WorkStealingDispatcher(int workers, Consumer<T> handler, WaitStrategy waitStrategy,
+      BiConsumer<T, RuntimeException> errorHandler) {
+    if (workers < 1) {
+      throw new IllegalArgumentException("Workers must be positive: " + workers);
+    }
+    _workers = new ArrayList<>(workers);
+    _handler = handler;
+    _errorHandler = errorHandler;
+    _waitStrategy = waitStrategy;
+    _pool = Executors.newFixedThreadPool(workers);
+
+    for (int i = 0; i < workers; i++) {
+      _workers.add(new Worker<>());
+    }
+    for (int i = 0; i < workers; i++) {
+      final int id = i;
+      _pool.execute(() -> work(id));
+    }
+  }
+
+  /**
+   * Submit an item which can be handled by any consumer. Items are spread round robin, and rebalanced by stealing.
+   */
+  public void submit(T item) {
+    checkOpen();
+    _pending.incrementAndGet();
+    int worker = Math.floorMod(_nextWorker.getAndIncrement(), _workers.size());
+    _workers.get(worker).local.offerLast(item);
+    _waitStrategy.signal();
+  }
+
+  /**
+   * Submit an item which must be handled after every item previously submitted with the same key.
+   */
+  public void submit(T item, long key) {
+    checkOpen();
+    _pending.incrementAndGet();
+    _workers.get(workerFor(key)).affinity.offer(item);
+    _waitStrategy.signal();
+  }
+
+  /**
+   * @return the consumer which owns a key
+   */
+  public int workerFor(long key) {
+    // spread sequential keys across the workers
+    long mixed = key * 0x9E3779B97F4A7C15L;
+    return Math.floorMod((int) (mixed ^ (mixed >>> 32)), _workers.size());
+  }
+
+  /**
+   * @return the number of items taken from another consumer's deque so far.
+   */
+  public long stolen() {
+    return _stolen.get();
+  }
+
+  /**
+   * @return the number of items the handler threw on so far.
+   */
+  public long failed() {
+    return _failed.get();
+  }
+
+  public int workers() {
+    return _workers.size();
+  }
+
+  private void checkOpen() {
+    if (_closed) {
+      throw new IllegalStateException("Dispatcher is closed");
+    }
+  }
+
+  private void work(int id) {
+    Worker<T> self = _workers.get(id);
+    int attempt = 0;
+    for (;;) {
+      T item = self.affinity.poll();
+      if (item == null) {
+        item = self.local.pollFirst();
+      }
+      if (item == null) {
+        item = steal(id);
+      }
+
+      if (item != null) {
+        try {
+          _handler.accept(item);
+        } catch (RuntimeException ex) {
+          _failed.incrementAndGet();
+          _errorHandler.accept(item, ex);
+        } finally {
+          // counted as handled however the handler ended, so close does not wait on it forever
+          _pending.decrementAndGet();
+        }
+        attempt = 0;
+      } else if (_closed && _pending.get() == 0) {
+        return;
+      } else {
+        try {
+          attempt = _waitStrategy.idle(attempt);
+        } catch (InterruptedException ex) {
+          // the pool is being shut down now, leave what is left unhandled
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Steal from the tail of the other consumers' deques, starting with the next consumer along.
+   */
+  private T steal(int thief) {
+    for (int i = 1; i < _workers.size(); i++) {
+      T item = _workers.get((thief + i) % _workers.size()).local.pollLast();
+      if (item != null) {
+        _stolen.incrementAndGet();
+        return item;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stop accepting items, and wait for every submitted item to be handled. Submitting must have finished before
+   * close is called. If the calling thread is interrupted while waiting, the consumers are interrupted and the items
+   * left are dropped, and the interrupt status is restored.
+   */
+  @Override
+  public void close() {
+    _closed = true;
+    _waitStrategy.signal();
+    _pool.shutdown();
+    try {
+      while (!_pool.awaitTermination(1, TimeUnit.SECONDS)) {
+        _waitStrategy.signal();
+      }
+    } catch (InterruptedException ex) {
+      _pool.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
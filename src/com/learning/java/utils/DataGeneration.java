@@ -15,4 +15,17 @@ public class DataGeneration {
   public static int[] randomArray(int size) {
     return randomArray(size, (int) Math.round(Math.random() * size));
   }
+
+  /**
+   * Random characters drawn from the first alphabetSize lowercase letters, 'a', 'b', ...
+   */
+  public static char[] randomSequence(int size, int alphabetSize) {
+    char[] randomS = new char[size];
+
+    for(int i = 0; i < size; i++) {
+      randomS[i] = (char) ('a' + (int) (Math.random() * alphabetSize));
+    }
+
+    return randomS;
+  }
 }
@@ -0,0 +1,288 @@
+package com.learning.java.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A memoization table from primitive long keys to primitive long values. Unlike a {@code Map<Integer, Integer>} it
+ * never boxes, and a lookup is a single probe sequence rather than a containsKey followed by a get.
+ *
+ * The table is split into stripes, each an open addressing hash table with linear probing guarded by its own
+ * {@link StampedLock}. Lookups are optimistic reads which only take the read lock if a writer got in the way, so
+ * concurrent readers never block each other. int keys widen to long, and two ints can be packed into one key with
+ * {@link #pack(int, int)}.
+ *
+ * A bounded table evicts an entry when a stripe is full: the first entry found along the probe sequence of the new
+ * key, so an entry is displaced by the keys which hash near it, the way a direct mapped cache behaves.
+ */
+public class LongMemoTable {
+    /** Returned by {@link #get(long)} when the key is not in the table. It cannot be used as a key or a value. */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final Stripe[] _stripes;
+    private final int _stripeMask;
+    // the most entries a single stripe holds before it evicts, Integer.MAX_VALUE when unbounded
+    private final int _maxPerStripe;
+    private final AtomicLong _evictions = new AtomicLong(0);
+
+    private static final class Stripe {
+        final StampedLock lock = new StampedLock();
+        // replaced together on resize, so optimistic readers see keys and values of the same length
+        Slots slots;
+        int size;
+    }
+
+    private static final class Slots {
+        final long[] keys;
+        final long[] values;
+        final int mask;
+
+        Slots(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            mask = capacity - 1;
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+
+    /**
+     * An unbounded table.
+     */
+    public LongMemoTable() {
+        this(DEFAULT_CAPACITY, Integer.MAX_VALUE, DEFAULT_STRIPES);
+    }
+
+    /**
+     * A bounded table, which evicts once it holds about maxEntries entries.
+     */
+    public LongMemoTable(int maxEntries) {
+        this(DEFAULT_CAPACITY, maxEntries, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param initialCapacity the number of entries to size the table for up front
+     * @param maxEntries the number of entries to hold before evicting, Integer.MAX_VALUE for unbounded
+     * @param stripes the number of independently locked stripes, rounded up to a power of 2
+     */
+    public LongMemoTable(int initialCapacity, int maxEntries, int stripes) {
+        if (maxEntries < 1 || stripes < 1 || initialCapacity < 0) {
+            throw new IllegalArgumentException("Invalid table size, initial capacity: " + initialCapacity
+                    + ", max entries: " + maxEntries + ", stripes: " + stripes);
+        }
+
+        int stripeCount = powerOfTwoAtLeast(stripes);
+        _stripes = new Stripe[stripeCount];
+        _stripeMask = stripeCount - 1;
+        _maxPerStripe = maxEntries == Integer.MAX_VALUE ? Integer.MAX_VALUE
+                : Math.max(1, (maxEntries + stripeCount - 1) / stripeCount);
+
+        // keep every stripe at most half full
+        int perStripe = Math.min(initialCapacity / stripeCount + 1, _maxPerStripe);
+        int slots = powerOfTwoAtLeast(Math.max(4, perStripe * 2));
+        for (int i = 0; i < stripeCount; i++) {
+            _stripes[i] = new Stripe();
+            _stripes[i].slots = new Slots(slots);
+        }
+    }
+
+    /**
+     * Packs two ints into a single key, for memoizing functions of two int arguments.
+     */
+    public static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * @return the value for the key, or {@link #MISSING} if it is not in the table
+     */
+    public long get(long key) {
+        if (key == EMPTY) {
+            return MISSING;
+        }
+        long hash = mix(key);
+        Stripe stripe = _stripes[(int) (hash >>> 32) & _stripeMask];
+
+        long stamp = stripe.lock.tryOptimisticRead();
+        long value = find(stripe.slots, key, hash);
+        if (!stripe.lock.validate(stamp)) {
+            // a writer changed the stripe while we were probing, read again under the lock
+            stamp = stripe.lock.readLock();
+            try {
+                value = find(stripe.slots, key, hash);
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * Insert or replace the value for a key, evicting another entry if the table is bounded and the stripe is full.
+     */
+    public void put(long key, long value) {
+        if (key == EMPTY || value == MISSING) {
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be used as a key or value");
+        }
+
+        long hash = mix(key);
+        Stripe stripe = _stripes[(int) (hash >>> 32) & _stripeMask];
+
+        long stamp = stripe.lock.writeLock();
+        try {
+            Slots slots = stripe.slots;
+            int home = (int) hash & slots.mask;
+            for (int i = home, probes = 0; probes <= slots.mask; i = (i + 1) & slots.mask, probes++) {
+                if (slots.keys[i] == key) {
+                    slots.values[i] = value;
+                    return;
+                }
+                if (slots.keys[i] == EMPTY) {
+                    break;
+                }
+            }
+
+            if (stripe.size >= _maxPerStripe) {
+                evict(stripe, home);
+            } else if ((stripe.size + 1) * 2 > slots.keys.length) {
+                resize(stripe);
+            }
+            insert(stripe, key, value, hash);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the number of entries in the table
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : _stripes) {
+            long stamp = stripe.lock.readLock();
+            size += stripe.size;
+            stripe.lock.unlockRead(stamp);
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of entries evicted so far to stay within the bound
+     */
+    public long evictions() {
+        return _evictions.get();
+    }
+
+    public void clear() {
+        for (Stripe stripe : _stripes) {
+            long stamp = stripe.lock.writeLock();
+            Arrays.fill(stripe.slots.keys, EMPTY);
+            stripe.size = 0;
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    private static long find(Slots slots, long key, long hash) {
+        long[] keys = slots.keys;
+        int mask = slots.mask;
+        // bounded, so a probe racing with a writer always ends, validation then throws the result away
+        for (int i = (int) hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long found = keys[i];
+            if (found == key) {
+                return slots.values[i];
+            }
+            if (found == EMPTY) {
+                return MISSING;
+            }
+        }
+        return MISSING;
+    }
+
+    private void insert(Stripe stripe, long key, long value, long hash) {
+        Slots slots = stripe.slots;
+        int i = (int) hash & slots.mask;
+        while (slots.keys[i] != EMPTY) {
+            i = (i + 1) & slots.mask;
+        }
+        slots.values[i] = value;
+        slots.keys[i] = key;
+        stripe.size++;
+    }
+
+    private void resize(Stripe stripe) {
+        Slots old = stripe.slots;
+        Slots slots = new Slots(old.keys.length * 2);
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != EMPTY) {
+                int j = (int) mix(key) & slots.mask;
+                while (slots.keys[j] != EMPTY) {
+                    j = (j + 1) & slots.mask;
+                }
+                slots.keys[j] = key;
+                slots.values[j] = old.values[i];
+            }
+        }
+        stripe.slots = slots;
+    }
+
+    /**
+     * Remove the first entry along the probe sequence starting at home, then close the gap by shifting back the
+     * entries after it which would otherwise become unreachable.
+     */
+    private void evict(Stripe stripe, int home) {
+        Slots slots = stripe.slots;
+        long[] keys = slots.keys;
+        int mask = slots.mask;
+
+        int gap = home;
+        while (keys[gap] == EMPTY) {
+            gap = (gap + 1) & mask;
+        }
+
+        int next = gap;
+        for (;;) {
+            next = (next + 1) & mask;
+            if (keys[next] == EMPTY) {
+                break;
+            }
+            int nextHome = (int) mix(keys[next]) & mask;
+            // the entry can stay if its home lies cyclically in (gap, next]
+            boolean reachable = gap <= next ? (gap < nextHome && nextHome <= next) : (gap < nextHome || nextHome <= next);
+            if (!reachable) {
+                keys[gap] = keys[next];
+                slots.values[gap] = slots.values[next];
+                gap = next;
+            }
+        }
+
+        keys[gap] = EMPTY;
+        stripe.size--;
+        _evictions.incrementAndGet();
+    }
+
+    private static int powerOfTwoAtLeast(int value) {
+        int power = Integer.highestOneBit(Math.max(1, value));
+        return power < value ? power << 1 : power;
+    }
+
+    /**
+     * The 64 bit finalizer of MurmurHash3, so that sequential keys spread across stripes and slots.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,35 @@
+package com.learning.java.utils;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Per thread resource counters, used to show what a block of code costs the thread that runs it.
+ */
+public class ThreadStats {
+    private static final java.lang.management.ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Returns the total bytes allocated on the heap by the current thread, or -1 if the JVM does not support
+     * allocation tracking.
+     *
+     * @return bytes allocated so far by the calling thread
+     */
+    public static long allocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the CPU time used by the current thread, or -1 if the JVM does not support thread CPU time.
+     *
+     * @return CPU nanoseconds used so far by the calling thread
+     */
+    public static long cpuTimeNanos() {
+        if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+            return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        }
+        return -1;
+    }
+}